@@ -0,0 +1,149 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JTextField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Placement des mots croisés. {@code canPlaceAll} reprend l'ancien {@code CrosswordGui.canPlace} :
+ * test de placement de chaque mot à chaque position d'une grille 12x12 partiellement remplie,
+ * lettres lues dans des {@link JTextField}. {@code layoutCanPlaceAll} fait le même parcours sur
+ * un {@code CrosswordLayout} (règles complètes des mots croisés), {@code generateLayout} produit
+ * une grille entière. {@code matchPattern} interroge un {@code WordIndex} de 100 000 mots
+ * tirés au hasard, {@code generateFromDictionary} remplit une grille à partir de cet index.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CrosswordBenchmark {
+    private static final long SEED = 42L;
+    private static final int SIZE = 12;
+    private static final String[] WORDS = {
+            "AMOUR", "AIMER", "LOGIQUE", "MONDE", "VIE", "TERRE", "VALABLE", "TRAHISON",
+            "CHIFFRE", "FONCTION", "TRISTE", "LAC", "CHAT", "CACHE", "CHIEN", "SOURIRE"
+    };
+    private static final List<String> WORD_LIST = Arrays.asList(WORDS);
+    private static final int DICTIONARY_SIZE = 100_000;
+    private static final String[] PATTERNS = {"?A??E", "C?????", "??L?O??", "R?????E", "?O?"};
+
+    private JTextField[][] cells;
+    private Object layout;
+    private Random layoutRand;
+    private Object dictionary;
+    private long[] matches;
+    private int pattern;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        Random rand = new Random(SEED);
+        cells = new JTextField[SIZE][SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                cells[r][c] = new JTextField();
+            }
+        }
+        for (String w : WORDS) {
+            for (int attempt = 0; attempt < 50; attempt++) {
+                boolean horizontal = rand.nextBoolean();
+                int r = horizontal ? rand.nextInt(SIZE) : rand.nextInt(SIZE - w.length());
+                int c = horizontal ? rand.nextInt(SIZE - w.length()) : rand.nextInt(SIZE);
+                if (canPlace(w, r, c, horizontal)) {
+                    for (int i = 0; i < w.length(); i++) {
+                        cells[r + (horizontal ? 0 : i)][c + (horizontal ? i : 0)].setText("" + w.charAt(i));
+                    }
+                    break;
+                }
+            }
+        }
+        layout = (Object) Engines.GENERATE_LAYOUT.invokeExact(SIZE, WORD_LIST, new Random(SEED));
+        layoutRand = new Random(SEED);
+
+        // Mots prononçables (consonne, voyelle, ...) pour que les motifs aient des réponses
+        String consonants = "BCDFGHJLMNPRSTV", vowels = "AEIOU";
+        List<String> words = new ArrayList<>(DICTIONARY_SIZE);
+        for (int i = 0; i < DICTIONARY_SIZE; i++) {
+            char[] w = new char[3 + rand.nextInt(8)];
+            for (int k = 0; k < w.length; k++) {
+                String from = k % 2 == 0 ? consonants : vowels;
+                w[k] = from.charAt(rand.nextInt(from.length()));
+            }
+            words.add(new String(w));
+        }
+        dictionary = (Object) Engines.BUILD_WORD_INDEX.invokeExact((Collection<String>) words);
+        matches = new long[(DICTIONARY_SIZE + 63) / 64];
+    }
+
+    @Benchmark
+    public int canPlaceAll() {
+        int fits = 0;
+        for (String w : WORDS) {
+            for (int r = 0; r < SIZE; r++) {
+                for (int c = 0; c < SIZE; c++) {
+                    if (canPlace(w, r, c, true)) fits++;
+                    if (canPlace(w, r, c, false)) fits++;
+                }
+            }
+        }
+        return fits;
+    }
+
+    @Benchmark
+    public int layoutCanPlaceAll() throws Throwable {
+        int fits = 0;
+        for (String w : WORDS) {
+            for (int r = 0; r < SIZE; r++) {
+                for (int c = 0; c < SIZE; c++) {
+                    if ((boolean) Engines.LAYOUT_CAN_PLACE.invokeExact(layout, w, r, c, true)) fits++;
+                    if ((boolean) Engines.LAYOUT_CAN_PLACE.invokeExact(layout, w, r, c, false)) fits++;
+                }
+            }
+        }
+        return fits;
+    }
+
+    @Benchmark
+    public Object generateLayout() throws Throwable {
+        return (Object) Engines.GENERATE_LAYOUT.invokeExact(SIZE, WORD_LIST, layoutRand);
+    }
+
+    @Benchmark
+    public int matchPattern() throws Throwable {
+        String p = PATTERNS[pattern++ % PATTERNS.length];
+        return (int) Engines.WORD_INDEX_MATCH.invokeExact(dictionary, (CharSequence) p, matches);
+    }
+
+    @Benchmark
+    public Object generateFromDictionary() throws Throwable {
+        return (Object) Engines.GENERATE_FROM_INDEX.invokeExact(SIZE, dictionary, 20, layoutRand);
+    }
+
+    /** Copie de l'ancien {@code CrosswordGui.canPlace}. */
+    private boolean canPlace(String word, int r, int c, boolean horizontal) {
+        for (int i = 0; i < word.length(); i++) {
+            int rr = r + (horizontal ? 0 : i);
+            int cc = c + (horizontal ? i : 0);
+            if (rr >= SIZE || cc >= SIZE) return false;
+            String val = cells[rr][cc].getText();
+            if (!val.equals("") && !val.equals("" + word.charAt(i))) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Accès aux classes du jeu depuis les benchmarks.
+ * <p>
+ * Le jeu vit dans le paquetage par défaut, que Java ne permet pas d'importer, alors que JMH
+ * refuse les benchmarks hors paquetage. Les méthodes mesurées sont donc résolues une fois en
+ * {@code static final MethodHandle}, que le JIT traite comme des constantes et inline.
+ */
+final class Engines {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final MethodHandle NEW_SUDOKU;
+    static final MethodHandle GENERATE;
+    static final MethodHandle NEW_BOARD;
+    static final MethodHandle LOAD;
+    static final MethodHandle CLEAR;
+    static final MethodHandle REMPLIR;
+    static final MethodHandle NEW_RNG;
+    static final MethodHandle REMPLIR_SEEDED;
+    static final MethodHandle EST_VALIDE;
+    static final MethodHandle CANDIDATES;
+    static final MethodHandle GENERATE_LAYOUT;
+    static final MethodHandle LAYOUT_CAN_PLACE;
+    static final MethodHandle BUILD_WORD_INDEX;
+    static final MethodHandle WORD_INDEX_MATCH;
+    static final MethodHandle GENERATE_FROM_INDEX;
+
+    static {
+        try {
+            Class<?> sudoku = Class.forName("Sudoku");
+            Class<?> board = Class.forName("SudokuBoard");
+            Class<?> rng = Class.forName("SplitMix64");
+            Class<?> layout = Class.forName("CrosswordLayout");
+            Class<?> index = Class.forName("WordIndex");
+            NEW_SUDOKU = LOOKUP.findConstructor(sudoku, MethodType.methodType(void.class, Random.class))
+                    .asType(MethodType.methodType(Object.class, Random.class));
+            GENERATE = virtual(sudoku, "generate", void.class);
+            NEW_BOARD = LOOKUP.findConstructor(board, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            LOAD = virtual(board, "load", void.class, int[][].class);
+            CLEAR = virtual(board, "clear", void.class);
+            REMPLIR = virtual(board, "remplir", boolean.class, Supplier.class);
+            NEW_RNG = LOOKUP.findConstructor(rng, MethodType.methodType(void.class, long.class))
+                    .asType(MethodType.methodType(Object.class, long.class));
+            REMPLIR_SEEDED = virtual(board, "remplir", boolean.class, rng)
+                    .asType(MethodType.methodType(boolean.class, Object.class, Object.class));
+            EST_VALIDE = virtual(board, "estValide", boolean.class, int.class, int.class, int.class);
+            CANDIDATES = virtual(board, "candidates", int.class, int.class, int.class);
+            GENERATE_LAYOUT = LOOKUP.findStatic(layout, "generate",
+                            MethodType.methodType(layout, int.class, List.class, Random.class))
+                    .asType(MethodType.methodType(Object.class, int.class, List.class, Random.class));
+            LAYOUT_CAN_PLACE = virtual(layout, "canPlace", boolean.class, String.class, int.class, int.class, boolean.class);
+            BUILD_WORD_INDEX = LOOKUP.findStatic(index, "build", MethodType.methodType(index, Collection.class))
+                    .asType(MethodType.methodType(Object.class, Collection.class));
+            WORD_INDEX_MATCH = virtual(index, "match", int.class, CharSequence.class, long[].class);
+            GENERATE_FROM_INDEX = LOOKUP.findStatic(layout, "generate",
+                            MethodType.methodType(layout, int.class, index, int.class, Random.class))
+                    .asType(MethodType.methodType(Object.class, int.class, Object.class, int.class, Random.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Engines() {
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> ret, Class<?>... params)
+            throws ReflectiveOperationException {
+        MethodHandle mh = LOOKUP.findVirtual(owner, name, MethodType.methodType(ret, params));
+        return mh.asType(mh.type().changeParameterType(0, Object.class));
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.swing.JTextField;
+
+/**
+ * Copie du code de référence (balayage des 27 cases, lecture dans les {@link JTextField}),
+ * conservée pour comparer les moteurs actuels et futurs à la version d'origine.
+ */
+final class LegacySudoku {
+    private LegacySudoku() {
+    }
+
+    static boolean remplir(int[][] grille, int l, int c, Random rand) {
+        if (c == 9) { c = 0; l++; }
+        if (l == 9) return true;
+
+        int[] nums = melangerNombres(rand);
+        for (int val : nums) {
+            if (estValide(grille, l, c, val)) {
+                grille[l][c] = val;
+                if (remplir(grille, l, c + 1, rand)) return true;
+                grille[l][c] = 0;
+            }
+        }
+        return false;
+    }
+
+    static int[] melangerNombres(Random rand) {
+        int[] nums = new int[9];
+        for (int i = 0; i < 9; i++) nums[i] = i + 1;
+        for (int i = 0; i < 9; i++) {
+            int j = rand.nextInt(9);
+            int tmp = nums[i];
+            nums[i] = nums[j];
+            nums[j] = tmp;
+        }
+        return nums;
+    }
+
+    static boolean estValide(int[][] grille, int l, int c, int val) {
+        for (int i = 0; i < 9; i++) {
+            if (grille[l][i] == val || grille[i][c] == val) return false;
+        }
+        int startRow = l - l % 3, startCol = c - c % 3;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (grille[startRow + i][startCol + j] == val) return false;
+            }
+        }
+        return true;
+    }
+
+    static List<Integer> getPossibles(JTextField[][] cells, int row, int col) {
+        List<Integer> possibles = new ArrayList<>();
+        for (int val = 1; val <= 9; val++) {
+            if (estValidePourGrilleTemp(cells, row, col, val)) possibles.add(val);
+        }
+        return possibles;
+    }
+
+    private static boolean estValidePourGrilleTemp(JTextField[][] cells, int l, int c, int val) {
+        for (int i = 0; i < 9; i++) {
+            if (cells[l][i].getText().equals(String.valueOf(val))) return false;
+            if (cells[i][c].getText().equals(String.valueOf(val))) return false;
+        }
+
+        int startRow = l - l % 3, startCol = c - c % 3;
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (cells[startRow + i][startCol + j].getText().equals(String.valueOf(val))) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.swing.JTextField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Génération, validation et calcul des candidats du Sudoku, moteur actuel contre code d'origine.
+ * Toutes les entrées dérivent de {@link #SEED} : deux exécutions mesurent exactement le même travail.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SudokuBenchmark {
+    private static final long SEED = 42L;
+    private static final int GRIDS = 64;
+    private static final int BLANKS = 50;
+
+    private Random rand;
+    private Supplier<int[]> ordre;
+    private Object rng;
+    private Object board;
+    private Object[] boards;
+    private int[][][] puzzles;
+    private JTextField[][][] fields;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        rand = new Random(SEED);
+        ordre = () -> LegacySudoku.melangerNombres(rand);
+        rng = (Object) Engines.NEW_RNG.invokeExact(SEED);
+        board = (Object) Engines.NEW_BOARD.invokeExact();
+
+        Random inputs = new Random(SEED);
+        boards = new Object[GRIDS];
+        puzzles = new int[GRIDS][9][9];
+        fields = new JTextField[GRIDS][9][9];
+        for (int g = 0; g < GRIDS; g++) {
+            LegacySudoku.remplir(puzzles[g], 0, 0, inputs);
+            for (int i = 0; i < BLANKS; ) {
+                int l = inputs.nextInt(9), c = inputs.nextInt(9);
+                if (puzzles[g][l][c] != 0) {
+                    puzzles[g][l][c] = 0;
+                    i++;
+                }
+            }
+            boards[g] = (Object) Engines.NEW_BOARD.invokeExact();
+            Engines.LOAD.invokeExact(boards[g], puzzles[g]);
+            for (int l = 0; l < 9; l++) {
+                for (int c = 0; c < 9; c++) {
+                    fields[g][l][c] = new JTextField(puzzles[g][l][c] == 0 ? "" : String.valueOf(puzzles[g][l][c]));
+                }
+            }
+        }
+    }
+
+    private int nextGrid() {
+        next = (next + 1) & (GRIDS - 1);
+        return next;
+    }
+
+    /** {@code Sudoku.generate} : grille complète, graine différente à chaque appel. */
+    @Benchmark
+    public Object generate() throws Throwable {
+        Object sudoku = (Object) Engines.NEW_SUDOKU.invokeExact(rand);
+        Engines.GENERATE.invokeExact(sudoku);
+        return sudoku;
+    }
+
+    /** Remplissage de {@code SudokuGui} via {@code SudokuBoard.remplir}. */
+    @Benchmark
+    public boolean remplir() throws Throwable {
+        Engines.CLEAR.invokeExact(board);
+        return (boolean) Engines.REMPLIR.invokeExact(board, ordre);
+    }
+
+    /** Même remplissage, ordre des valeurs tiré par {@code SplitMix64} sans allocation. */
+    @Benchmark
+    public boolean remplirSeeded() throws Throwable {
+        Engines.CLEAR.invokeExact(board);
+        return (boolean) Engines.REMPLIR_SEEDED.invokeExact(board, rng);
+    }
+
+    @Benchmark
+    public int[][] remplirLegacy() {
+        int[][] grille = new int[9][9];
+        LegacySudoku.remplir(grille, 0, 0, rand);
+        return grille;
+    }
+
+    /** {@code estValide} pour chaque valeur de chaque case vide d'une grille à 31 indices. */
+    @Benchmark
+    public int estValide() throws Throwable {
+        int g = nextGrid();
+        Object b = boards[g];
+        int[][] p = puzzles[g];
+        int valid = 0;
+        for (int l = 0; l < 9; l++) {
+            for (int c = 0; c < 9; c++) {
+                if (p[l][c] != 0) continue;
+                for (int v = 1; v <= 9; v++) {
+                    if ((boolean) Engines.EST_VALIDE.invokeExact(b, l, c, v)) valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int estValideLegacy() {
+        int[][] p = puzzles[nextGrid()];
+        int valid = 0;
+        for (int l = 0; l < 9; l++) {
+            for (int c = 0; c < 9; c++) {
+                if (p[l][c] != 0) continue;
+                for (int v = 1; v <= 9; v++) {
+                    if (LegacySudoku.estValide(p, l, c, v)) valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /** Candidats de toutes les cases vides, comme un clic sur « Aide IA ». */
+    @Benchmark
+    public int candidates() throws Throwable {
+        int g = nextGrid();
+        Object b = boards[g];
+        int[][] p = puzzles[g];
+        int total = 0;
+        for (int l = 0; l < 9; l++) {
+            for (int c = 0; c < 9; c++) {
+                if (p[l][c] == 0) total += Integer.bitCount((int) Engines.CANDIDATES.invokeExact(b, l, c));
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int getPossiblesLegacy() {
+        JTextField[][] cells = fields[nextGrid()];
+        int total = 0;
+        for (int l = 0; l < 9; l++) {
+            for (int c = 0; c < 9; c++) {
+                if (cells[l][c].getText().isEmpty()) total += LegacySudoku.getPossibles(cells, l, c).size();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Arrays;
+
+/**
+ * Anti-cavalier : deux cases séparées par un saut de cavalier ne portent jamais la même
+ * valeur. Les candidats d'une case perdent les valeurs de ses (au plus) huit cases « cavalier »,
+ * relues dans la grille à chaque calcul.
+ */
+public final class AntiKnightConstraint implements SudokuConstraint {
+    private static final int[][] JUMPS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+
+    /** Cases à un saut de cavalier de chaque case. */
+    private final int[][] knights;
+
+    public AntiKnightConstraint(int box) {
+        int size = box * box;
+        knights = new int[size * size][];
+        int[] buffer = new int[JUMPS.length];
+        for (int cell = 0; cell < knights.length; cell++) {
+            int l = cell / size, c = cell % size, n = 0;
+            for (int[] jump : JUMPS) {
+                int nl = l + jump[0], nc = c + jump[1];
+                if (nl >= 0 && nl < size && nc >= 0 && nc < size) {
+                    buffer[n++] = nl * size + nc;
+                }
+            }
+            knights[cell] = Arrays.copyOf(buffer, n);
+        }
+    }
+
+    @Override
+    public boolean restrictsCandidates() {
+        return true;
+    }
+
+    @Override
+    public int allowed(int cell, int[] cells) {
+        int taken = 0;
+        for (int other : knights[cell]) {
+            int v = cells[other];
+            if (v != 0) {
+                taken |= 1 << (v - 1);
+            }
+        }
+        return ~taken;
+    }
+
+    @Override
+    public SudokuConstraint copy() {
+        return this;
+    }
+}
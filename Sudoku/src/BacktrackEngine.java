@@ -0,0 +1,141 @@
+import java.util.concurrent.CancellationException;
+
+/**
+ * Retour arrière itératif sur un {@link SudokuBoard} : même choix de case que la recherche
+ * récursive (la plus contrainte, singletons cachés au-delà de 9x9 et pour les variantes), mais
+ * avec une pile explicite de deux {@code int} par niveau au lieu de la pile d'appels. La
+ * profondeur ne dépend donc pas de la taille de la grille, et rien n'est alloué pendant la
+ * recherche.
+ * <p>
+ * {@link #run(long)} avance d'au plus un nombre donné de nœuds puis rend la main : la recherche
+ * reprend exactement là où elle s'était arrêtée au prochain appel, ce qui permet de découper
+ * une génération en tranches ou de faire avancer plusieurs moteurs à tour de rôle sur un même
+ * thread. Après {@link Status#SOLVED}, la grille du plateau est la solution ; un nouvel appel
+ * cherche la suivante. Le plateau ne doit pas être modifié entre deux appels.
+ * <p>
+ * Si le thread est interrompu, la recherche s'arrête par une {@link CancellationException} ;
+ * l'interruption est vérifiée tous les {@link #INTERRUPT_CHECK} + 1 nœuds. Le moteur doit
+ * alors être relancé par {@link #start}. Non thread-safe.
+ */
+public final class BacktrackEngine {
+    public enum Status {
+        /** Le plateau contient une solution. */
+        SOLVED,
+        /** Plus aucune solution : le plateau est revenu à son état de départ. */
+        EXHAUSTED,
+        /** Budget de nœuds épuisé, la recherche reprendra au prochain appel. */
+        PAUSED
+    }
+
+    /** Masque du compteur de nœuds : l'interruption est vérifiée quand ses bits sont nuls. */
+    private static final long INTERRUPT_CHECK = 0x3FF;
+
+    private final SudokuBoard board;
+    /** Case de chaque niveau et valeurs qui y restent à essayer. */
+    private final int[] stackCell;
+    private final int[] stackMask;
+    private int depth;
+    /** Vrai quand le niveau courant vient d'être posé et qu'il faut choisir la case suivante. */
+    private boolean descend;
+    private boolean exhausted;
+    /** Ordre des valeurs : croissant si null, uniforme sinon. */
+    private SplitMix64 rng;
+    private long nodes;
+    private long solutions;
+
+    public BacktrackEngine(SudokuBoard board) {
+        this.board = board;
+        int cells = board.getCellCount();
+        stackCell = new int[cells];
+        stackMask = new int[cells];
+        start(null);
+    }
+
+    public SudokuBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Prépare une recherche à partir de la grille actuelle du plateau, les valeurs étant
+     * essayées dans l'ordre croissant ({@code rng} null) ou dans un ordre tiré de {@code rng}.
+     */
+    public void start(SplitMix64 rng) {
+        this.rng = rng;
+        depth = 0;
+        descend = true;
+        exhausted = false;
+        nodes = 0;
+        solutions = 0;
+    }
+
+    /** Nœuds parcourus depuis {@link #start}. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Solutions trouvées depuis {@link #start}. */
+    public long getSolutions() {
+        return solutions;
+    }
+
+    /** Cherche jusqu'à la prochaine solution, sans limite de nœuds. */
+    public Status run() {
+        return run(Long.MAX_VALUE);
+    }
+
+    /** Cherche jusqu'à la prochaine solution ou jusqu'à {@code maxNodes} nœuds de plus. */
+    public Status run(long maxNodes) {
+        if (exhausted) {
+            return Status.EXHAUSTED;
+        }
+        long budget = maxNodes;
+        while (true) {
+            if (descend) {
+                if (budget-- <= 0) {
+                    return Status.PAUSED;
+                }
+                if ((++nodes & INTERRUPT_CHECK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Recherche interrompue");
+                }
+                descend = false;
+                int cell = board.chooseBranch();
+                if (cell == SudokuBoard.FULL) {
+                    solutions++;
+                    return Status.SOLVED;
+                }
+                if (cell != SudokuBoard.DEAD_END) {
+                    stackCell[depth] = cell;
+                    stackMask[depth] = board.getBranchMask();
+                    depth++;
+                }
+            }
+
+            // Valeur suivante du niveau le plus profond, ou retour au niveau précédent
+            if (depth == 0) {
+                exhausted = true;
+                return Status.EXHAUSTED;
+            }
+            int cell = stackCell[depth - 1];
+            if (board.get(cell) != 0) {
+                board.remove(cell);
+            }
+            int mask = stackMask[depth - 1];
+            if (mask == 0) {
+                depth--;
+                continue;
+            }
+            int bit = rng == null ? mask & -mask : pick(mask);
+            stackMask[depth - 1] = mask & ~bit;
+            board.place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+            descend = true;
+        }
+    }
+
+    /** Bit de {@code mask} tiré uniformément : le k-ième, k uniforme parmi les bits restants. */
+    private int pick(int mask) {
+        for (int k = rng.nextInt(Integer.bitCount(mask)); k > 0; k--) {
+            mask &= mask - 1;
+        }
+        return mask & -mask;
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération de grilles en masse, sans interface graphique.
+ * <p>
+ * Les grilles sont produites en parallèle dans un {@link ForkJoinPool} et écrites une par
+ * ligne (81 caractères en 9x9, '.' pour une case vide) dès qu'elles sont prêtes. Une file bornée
+ * sépare les générateurs de l'écriture : la mémoire reste constante quel que soit le nombre
+ * de grilles demandé. Avec {@code --difficulty}, chaque grille est notée par
+ * {@link DifficultyGrader} et seules celles du niveau demandé sont écrites. La grille n° {@code i}
+ * ne dépend que de la graine et de {@code i}, l'ordre d'écriture peut en revanche varier.
+ * Avec {@code --bank}, les grilles, leur solution et leur difficulté sont écrites au format
+ * binaire de {@link PuzzleBank} au lieu du texte. Avec {@code --dedup} (9x9), une grille dont
+ * la forme canonique ({@link SudokuCanonicalizer}) a déjà été produite est rejetée et
+ * remplacée ; l'index des formes ({@link CanonicalIndex}) peut être relu et complété d'une
+ * session à l'autre. La grille retenue pour un numéro dépend alors aussi de l'ordre d'arrivée.
+ *
+ * <pre>
+ * java BulkGenerator --count 100000 --seed 42 --threads 8 --difficulty moyen --out grilles.txt
+ * java BulkGenerator --box 4 --count 1000 --out grilles16.txt
+ * java BulkGenerator --count 1000000 --seed 42 --bank grilles.bank --dedup grilles.idx
+ * </pre>
+ */
+public class BulkGenerator {
+    private static final int BATCH = 32;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_ATTEMPTS = 10_000;
+
+    private int box = 3;
+    private int count = 1;
+    private long seed = System.nanoTime();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Difficulty difficulty = Difficulty.MEDIUM;
+    private boolean graded;
+    private int clues = -1;
+    private PuzzleCarver.Symmetry symmetry = PuzzleCarver.Symmetry.NONE;
+    private String out = "-";
+    private String bank;
+    /** Fichier de l'index des formes canoniques, "-" pour un index en mémoire seulement. */
+    private String dedup;
+    private CanonicalIndex seen;
+
+    private final ThreadLocal<SudokuGenerator> generators =
+            ThreadLocal.withInitial(() -> new SudokuGenerator(box, seed));
+    private final ThreadLocal<DifficultyGrader> graders = ThreadLocal.withInitial(DifficultyGrader::new);
+    private final ThreadLocal<SudokuCanonicalizer> canonicalizers = ThreadLocal.withInitial(SudokuCanonicalizer::new);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BulkGenerator generator = new BulkGenerator();
+        try {
+            generator.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage : BulkGenerator [--box 2..5] [--count N] [--seed S] [--threads T] [--clues C]"
+                    + " [--difficulty facile|moyen|difficile] [--symmetry none|rotational|...] [--out fichier|-] [--bank fichier] [--dedup fichier|-]");
+            System.exit(2);
+        }
+        generator.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String opt = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valeur manquante pour " + opt);
+            }
+            String val = args[++i];
+            switch (opt) {
+                case "--box": box = Integer.parseInt(val); break;
+                case "--count": count = Integer.parseInt(val); break;
+                case "--seed": seed = Long.parseLong(val); break;
+                case "--threads": threads = Integer.parseInt(val); break;
+                case "--clues": clues = Integer.parseInt(val); break;
+                case "--difficulty": difficulty = Difficulty.parse(val); graded = true; break;
+                case "--symmetry": symmetry = PuzzleCarver.Symmetry.valueOf(val.toUpperCase()); break;
+                case "--out": out = val; break;
+                case "--bank": bank = val; break;
+                case "--dedup": dedup = val; break;
+                default: throw new IllegalArgumentException("Option inconnue : " + opt);
+            }
+        }
+        if (count < 0 || threads < 1) {
+            throw new IllegalArgumentException("--count doit être positif et --threads au moins 1");
+        }
+        if (box < SudokuGeometry.MIN_BOX || box > SudokuGeometry.MAX_BOX) {
+            throw new IllegalArgumentException("--box doit être compris entre " + SudokuGeometry.MIN_BOX
+                    + " et " + SudokuGeometry.MAX_BOX);
+        }
+        if (clues < 0) {
+            clues = difficulty.getTargetClues(box);
+        }
+        if (dedup != null && box != 3) {
+            throw new IllegalArgumentException("--dedup n'est disponible qu'en 9x9");
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        if (dedup != null) {
+            Path file = "-".equals(dedup) ? null : Paths.get(dedup);
+            seen = file != null && Files.exists(file) ? CanonicalIndex.load(file) : new CanonicalIndex(count);
+        }
+        BlockingQueue<Puzzle> puzzles = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ForkJoinTask<Void> task = pool.submit(new Batch(0, count, puzzles));
+        try {
+            if (bank != null) {
+                try (PuzzleBank.Writer w = new PuzzleBank.Writer(Paths.get(bank), box)) {
+                    for (int written = 0; written < count; written++) {
+                        w.append(take(puzzles, task));
+                    }
+                }
+            } else {
+                Writer writer = "-".equals(out)
+                        ? new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)
+                        : new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.US_ASCII);
+                try (BufferedWriter w = new BufferedWriter(writer, 1 << 16)) {
+                    for (int written = 0; written < count; written++) {
+                        w.write(take(puzzles, task).toString());
+                        w.newLine();
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (seen != null && !"-".equals(dedup)) {
+            seen.save(Paths.get(dedup));
+        }
+    }
+
+    private static Puzzle take(BlockingQueue<Puzzle> puzzles, ForkJoinTask<Void> task) throws InterruptedException {
+        while (true) {
+            Puzzle puzzle = puzzles.poll(100, TimeUnit.MILLISECONDS);
+            if (puzzle != null) {
+                return puzzle;
+            }
+            if (task.isCompletedAbnormally()) {
+                throw new IllegalStateException("Échec de la génération", task.getException());
+            }
+        }
+    }
+
+    /**
+     * Grille n° {@code index} : générée avec sa propre graine, dérivée de la graine globale.
+     * Avec {@code --difficulty}, les essais successifs sont notés et seule une grille du niveau
+     * demandé est gardée. Les grilles destinées à une banque sont toujours notées.
+     */
+    Puzzle generate(long index) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            SudokuGenerator generator = generators.get();
+            generator.setSeed(SplitMix64.derive(seed, index * MAX_ATTEMPTS + attempt));
+            Puzzle puzzle = generator.generate(clues, symmetry);
+            long hash = 0;
+            if (seen != null) {
+                hash = CanonicalIndex.hash(canonicalizers.get().canonicalize(puzzle.getGivens()));
+                if (seen.contains(hash)) {
+                    continue;
+                }
+            }
+            if (graded || bank != null) {
+                Difficulty grade = graders.get().grade(puzzle.getGivens()).getDifficulty();
+                if (graded && grade != difficulty) {
+                    continue;
+                }
+                puzzle = puzzle.withDifficulty(grade);
+            }
+            // Marquée seulement une fois retenue : une grille écartée pour son niveau reste
+            // disponible (ici comme dans l'index enregistré). add() tranche si deux threads
+            // ont retenu la même forme en même temps.
+            if (seen == null || seen.add(hash)) {
+                return puzzle;
+            }
+        }
+        throw new IllegalStateException("Aucune grille " + difficulty + " en " + MAX_ATTEMPTS
+                + " essais avec " + clues + " indices");
+    }
+
+    private class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+        private final BlockingQueue<Puzzle> puzzles;
+
+        Batch(int from, int to, BlockingQueue<Puzzle> puzzles) {
+            this.from = from;
+            this.to = to;
+            this.puzzles = puzzles;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Batch(from, mid, puzzles), new Batch(mid, to, puzzles));
+                return;
+            }
+            try {
+                for (int i = from; i < to; i++) {
+                    puzzles.put(generate(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
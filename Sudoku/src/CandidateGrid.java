@@ -0,0 +1,119 @@
+/**
+ * État de résolution « humaine » d'une grille (4x4 à 25x25) : valeurs posées et masque des
+ * candidats restants de chaque case vide.
+ * <p>
+ * L'état est maintenu de façon incrémentale : {@link #place} retire la valeur des candidats
+ * des cases liées (20 en 9x9), {@link #eliminate} ne touche qu'une case. Rien n'est jamais
+ * recalculé depuis la grille complète après le {@link #load} initial.
+ */
+public final class CandidateGrid {
+    private final SudokuGeometry geo;
+    private final int[] values;
+    private final int[] cand;
+    private int filled;
+
+    public CandidateGrid() {
+        this(3);
+    }
+
+    public CandidateGrid(int box) {
+        geo = SudokuGeometry.of(box);
+        values = new int[geo.cells];
+        cand = new int[geo.cells];
+    }
+
+    public SudokuGeometry getGeometry() {
+        return geo;
+    }
+
+    /** Charge une grille (0 = vide) et calcule les candidats initiaux ; faux si deux indices se contredisent. */
+    public boolean load(int[] grille) {
+        SudokuBoard board = new SudokuBoard(geo.box);
+        boolean ok = true;
+        for (int cell = 0; cell < geo.cells; cell++) {
+            int v = grille[cell];
+            if (v != 0) {
+                ok &= (board.candidates(cell) & (1 << (v - 1))) != 0;
+                board.place(cell, v);
+            }
+        }
+        filled = board.getFilledCount();
+        for (int cell = 0; cell < geo.cells; cell++) {
+            values[cell] = grille[cell];
+            cand[cell] = grille[cell] == 0 ? board.candidates(cell) : 0;
+        }
+        return ok;
+    }
+
+    public void copyFrom(CandidateGrid other) {
+        System.arraycopy(other.values, 0, values, 0, geo.cells);
+        System.arraycopy(other.cand, 0, cand, 0, geo.cells);
+        filled = other.filled;
+    }
+
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    public int candidates(int cell) {
+        return cand[cell];
+    }
+
+    public boolean isSolved() {
+        return filled == geo.cells;
+    }
+
+    public int getFilledCount() {
+        return filled;
+    }
+
+    /** Vrai si une case vide n'a plus aucun candidat. */
+    public boolean hasContradiction() {
+        for (int cell = 0; cell < geo.cells; cell++) {
+            if (values[cell] == 0 && cand[cell] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void place(int cell, int val) {
+        int keep = ~(1 << (val - 1));
+        values[cell] = val;
+        cand[cell] = 0;
+        filled++;
+        for (int peer : geo.peers[cell]) {
+            cand[peer] &= keep;
+        }
+    }
+
+    /** Retire les candidats de {@code mask} de la case ; renvoie vrai si quelque chose a changé. */
+    public boolean eliminate(int cell, int mask) {
+        int before = cand[cell];
+        cand[cell] = before & ~mask;
+        return cand[cell] != before;
+    }
+
+    /** Positions (bit i = i-ème case de l'unité) où le chiffre {@code bit} est encore candidat. */
+    public int positions(int unit, int bit) {
+        int[] cells = geo.units[unit];
+        int pos = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if ((cand[cells[i]] & bit) != 0) {
+                pos |= 1 << i;
+            }
+        }
+        return pos;
+    }
+
+    /** Vrai si le chiffre {@code bit} est déjà posé dans l'unité. */
+    public boolean isPlaced(int unit, int bit) {
+        int v = Integer.numberOfTrailingZeros(bit) + 1;
+        for (int cell : geo.units[unit]) {
+            if (values[cell] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
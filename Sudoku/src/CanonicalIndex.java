@@ -0,0 +1,135 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Ensemble d'empreintes 64 bits de formes canoniques ({@link SudokuCanonicalizer}), pour
+ * reconnaître une grille déjà produite à une transformation près.
+ * <p>
+ * Table à adressage ouvert sur un {@code long[]} (0 marque une case libre), agrandie par
+ * doublement au-delà de 3/4 de remplissage : 8 à 16 octets par grille, sans objet par entrée.
+ * Deux grilles différentes n'ont la même empreinte qu'avec une probabilité de l'ordre de
+ * n² / 2^65 (environ 3·10^-6 pour dix millions de grilles) ; le risque est de rejeter à tort une
+ * grille nouvelle, jamais d'en accepter une en double. L'index peut être enregistré sur disque
+ * et rechargé pour dédoublonner une banque sur plusieurs sessions. Les méthodes sont
+ * synchronisées.
+ */
+public final class CanonicalIndex {
+    private static final int MAGIC = 0x53444B49; // "SDKI"
+
+    private long[] table;
+    private int size;
+
+    public CanonicalIndex() {
+        this(1 << 16);
+    }
+
+    public CanonicalIndex(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 4 / 3) - 1) << 1;
+        table = new long[cap];
+    }
+
+    /** Empreinte d'une forme canonique (ou de n'importe quelle grille à plat), jamais 0. */
+    public static long hash(int[] grid) {
+        long h = 0x9E3779B97F4A7C15L;
+        long word = 0;
+        int n = 0;
+        for (int v : grid) {
+            word = word << 5 | v;
+            if (++n == 12) {
+                h = SplitMix64.mix(h ^ word);
+                word = 0;
+                n = 0;
+            }
+        }
+        h = SplitMix64.mix(h ^ word ^ (long) grid.length << 58);
+        return h == 0 ? 1 : h;
+    }
+
+    /** Ajoute l'empreinte ; faux si elle était déjà présente. */
+    public synchronized boolean add(long hash) {
+        if (hash == 0) {
+            hash = 1;
+        }
+        if ((size + 1) * 4L > table.length * 3L) {
+            grow();
+        }
+        if (!insert(table, hash)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    public synchronized boolean contains(long hash) {
+        if (hash == 0) {
+            hash = 1;
+        }
+        int mask = table.length - 1;
+        for (int i = (int) SplitMix64.mix(hash) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (table[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static boolean insert(long[] t, long hash) {
+        int mask = t.length - 1;
+        int i = (int) SplitMix64.mix(hash) & mask;
+        while (t[i] != 0) {
+            if (t[i] == hash) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        t[i] = hash;
+        return true;
+    }
+
+    private void grow() {
+        long[] bigger = new long[table.length * 2];
+        for (long h : table) {
+            if (h != 0) {
+                insert(bigger, h);
+            }
+        }
+        table = bigger;
+    }
+
+    /** Enregistre les empreintes (en-tête puis une empreinte par entrée, sans les cases libres). */
+    public synchronized void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            for (long h : table) {
+                if (h != 0) {
+                    out.writeLong(h);
+                }
+            }
+        }
+    }
+
+    /** Recharge un index enregistré par {@link #save}. */
+    public static CanonicalIndex load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Pas un index de grilles : " + path);
+            }
+            int n = in.readInt();
+            CanonicalIndex index = new CanonicalIndex(n);
+            for (int i = 0; i < n; i++) {
+                index.add(in.readLong());
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Remplissage d'une grille de mots croisés par retour arrière.
+ * <p>
+ * Les mots sont pris du plus long au plus court, le premier posé horizontalement au centre.
+ * Pour chaque mot suivant, seules les places qui croisent une lettre déjà posée sont
+ * envisagées : elles sont trouvées par l'index des lettres du {@link CrosswordLayout} (pour
+ * chaque lettre du mot, les cases qui la portent), puis classées par nombre de croisements,
+ * à égalité dans un ordre tiré au hasard. La recherche essaie les {@link #MAX_BRANCH}
+ * meilleures places, puis la grille sans ce mot, et garde la grille qui pose le plus de mots
+ * (puis qui a le plus de croisements) dans la limite de {@link #MAX_NODES} nœuds, quelques
+ * millisecondes pour une grille 12x12. Chaque mot croise au moins un mot déjà posé : la
+ * grille obtenue est d'un seul tenant.
+ * <p>
+ * Avec un dictionnaire ({@link WordIndex}), la démarche s'inverse : ce sont les places qui
+ * sont tirées, puis les mots. Une place croise un mot posé ; ses lettres déjà posées forment
+ * un motif ({@code ?A??E}) que l'index résout en quelques microsecondes, et le mot est tiré
+ * parmi ceux qui le respectent. Parmi {@link #SLOT_SAMPLES} places tirées au hasard, la
+ * grille prend celle qui croise le plus de lettres, pour une grille dense.
+ * <p>
+ * Une instance n'est pas thread-safe.
+ */
+public final class CrosswordFiller {
+    /** Places essayées par mot, les mieux classées d'abord. */
+    private static final int MAX_BRANCH = 3;
+    private static final long MAX_NODES = 5_000;
+    /**
+     * Nœuds avant de repartir du premier mot. La recherche en profondeur ne remet en cause
+     * que les derniers mots posés ; en repartant, avec un nouveau tirage pour départager les
+     * places, elle explore aussi d'autres choix pour les premiers.
+     */
+    private static final long RESTART_NODES = 500;
+
+    /** Places tirées pour chaque mot pris dans un dictionnaire. */
+    private static final int SLOT_SAMPLES = 64;
+    /** Tours sans aucune place possible avant d'arrêter de compléter la grille. */
+    private static final int MAX_FAILURES = 32;
+    /** Mots tirés dans les réponses d'une place avant d'y renoncer (mots déjà posés). */
+    private static final int MAX_PICKS = 8;
+
+    private final int size;
+    private final Random rand;
+    private CrosswordLayout layout;
+    private String[] words;
+    /** Places candidates de chaque niveau : croisements, tirage, puis {@code case * 2 + sens}. */
+    private int[][] slots;
+    /** Dernier tirage où chaque place a été examinée, pour ne l'examiner qu'une fois par mot. */
+    private final int[] seen;
+    private int stamp;
+    private long nodes;
+    private long limit;
+    private int crossings;
+    private boolean complete;
+
+    /** Mot et place de chaque entrée de la grille en cours, dans l'ordre de pose. */
+    private int[] pathWord;
+    private int[] pathSlot;
+    /** Même chose pour la meilleure grille trouvée. */
+    private int[] bestWord;
+    private int[] bestSlot;
+    private int bestCount;
+    private int bestCrossings;
+
+    public CrosswordFiller(int size, Random rand) {
+        if (size < 1 || size * size * 2 > 1 << 16) {
+            throw new IllegalArgumentException("Taille de grille non gérée : " + size);
+        }
+        this.size = size;
+        this.rand = rand;
+        seen = new int[size * size * 2];
+    }
+
+    /** Grille aussi dense que possible avec {@code words} ; les mots sans place sont laissés de côté. */
+    public CrosswordLayout fill(List<String> words) {
+        List<String> sorted = new ArrayList<>();
+        for (String w : words) {
+            if (!w.isEmpty() && w.length() <= size) {
+                sorted.add(w);
+            }
+        }
+        sorted.sort(Comparator.comparingInt(String::length).reversed());
+        this.words = sorted.toArray(new String[0]);
+        layout = new CrosswordLayout(size);
+        if (this.words.length == 0) {
+            return layout;
+        }
+
+        int n = this.words.length;
+        slots = new int[n][size * size * 2];
+        pathWord = new int[n];
+        pathSlot = new int[n];
+        bestWord = new int[n];
+        bestSlot = new int[n];
+        bestCount = 0;
+        bestCrossings = -1;
+        nodes = 0;
+        crossings = 0;
+        complete = false;
+
+        String first = this.words[0];
+        layout.place(first, size / 2, (size - first.length()) / 2, true);
+        while (!complete && nodes < MAX_NODES) {
+            limit = Math.min(nodes + RESTART_NODES, MAX_NODES);
+            search(1);
+        }
+
+        // La recherche a tout retiré sauf le premier mot : on repose la meilleure grille
+        for (int i = 1; i < bestCount; i++) {
+            int slot = bestSlot[i];
+            int start = slot >> 1;
+            layout.place(this.words[bestWord[i]], start / size, start % size, (slot & 1) == 0);
+        }
+        return layout;
+    }
+
+    /**
+     * Grille d'au plus {@code maxWords} mots tirés de {@code dict}, tous différents et d'un
+     * seul tenant ; le premier, aussi long que possible, est posé horizontalement au centre.
+     */
+    public CrosswordLayout fill(WordIndex dict, int maxWords) {
+        layout = new CrosswordLayout(size);
+        int first = size;
+        while (first >= WordIndex.MIN_LENGTH && dict.size(first) == 0) {
+            first--;
+        }
+        if (first < WordIndex.MIN_LENGTH || maxWords < 1) {
+            return layout;
+        }
+        Set<String> used = new HashSet<>();
+        String w = dict.word(first, rand.nextInt(dict.size(first)));
+        layout.place(w, size / 2, (size - first) / 2, true);
+        used.add(w);
+
+        long[][] bits = new long[size + 1][];
+        for (int len = WordIndex.MIN_LENGTH; len <= size; len++) {
+            bits[len] = dict.newBitset(len);
+        }
+        char[] pattern = new char[size];
+        for (int failures = 0; layout.getEntries().size() < maxWords && failures < MAX_FAILURES; ) {
+            failures = placeFromDictionary(dict, used, bits, pattern) ? 0 : failures + 1;
+        }
+        return layout;
+    }
+
+    /** Pose un mot du dictionnaire sur la meilleure des places tirées ; faux s'il n'y en a pas. */
+    private boolean placeFromDictionary(WordIndex dict, Set<String> used, long[][] bits, char[] pattern) {
+        List<CrosswordLayout.Entry> entries = layout.getEntries();
+        int bestScore = -1, bestRow = 0, bestCol = 0, bestLen = 0;
+        boolean bestAcross = false;
+        for (int s = 0; s < SLOT_SAMPLES; s++) {
+            // Une place perpendiculaire à un mot posé, passant par l'une de ses lettres
+            CrosswordLayout.Entry e = entries.get(rand.nextInt(entries.size()));
+            int at = rand.nextInt(e.length());
+            boolean across = !e.isAcross();
+            int len = WordIndex.MIN_LENGTH + rand.nextInt(size - WordIndex.MIN_LENGTH + 1);
+            int offset = rand.nextInt(len);
+            int row = e.getRow() + (e.isAcross() ? 0 : at) - (across ? 0 : offset);
+            int col = e.getCol() + (e.isAcross() ? at : 0) - (across ? offset : 0);
+            int fixed = slotPattern(row, col, len, across, pattern);
+            if (fixed <= 0) {
+                continue;
+            }
+            int score = fixed * (size + 1) + len;
+            if (score > bestScore && dict.match(String.valueOf(pattern, 0, len), bits[len]) > 0) {
+                bestScore = score;
+                bestRow = row;
+                bestCol = col;
+                bestLen = len;
+                bestAcross = across;
+            }
+        }
+        if (bestScore < 0) {
+            return false;
+        }
+
+        slotPattern(bestRow, bestCol, bestLen, bestAcross, pattern);
+        long[] matches = bits[bestLen];
+        int n = dict.match(String.valueOf(pattern, 0, bestLen), matches);
+        for (int pick = 0; pick < MAX_PICKS && n > 0; pick++) {
+            int i = WordIndex.select(matches, rand.nextInt(n));
+            String w = dict.word(bestLen, i);
+            if (used.add(w)) {
+                layout.place(w, bestRow, bestCol, bestAcross);
+                return true;
+            }
+            matches[i >>> 6] &= ~(1L << i);
+            n--;
+        }
+        return false;
+    }
+
+    /**
+     * Motif de la place dans {@code pattern} : lettres posées, {@link WordIndex#WILDCARD}
+     * ailleurs. Renvoie le nombre de lettres posées, -1 si la place enfreint les règles de la
+     * grille quel que soit le mot ({@link CrosswordLayout#crossings}).
+     */
+    private int slotPattern(int row, int col, int len, boolean across, char[] pattern) {
+        if (row < 0 || col < 0 || (across ? col : row) + len > size) {
+            return -1;
+        }
+        for (int i = 0; i < len; i++) {
+            char ch = layout.letterAt(row + (across ? 0 : i), col + (across ? i : 0));
+            pattern[i] = ch == CrosswordLayout.EMPTY ? WordIndex.WILDCARD : ch;
+        }
+        // Le motif passe là où passerait n'importe quel mot qui le respecte
+        return layout.crossings(String.valueOf(pattern, 0, len), row, col, across);
+    }
+
+    /** Nœuds parcourus par le dernier {@link #fill}. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    private void search(int k) {
+        int placed = layout.getEntries().size();
+        if (complete || nodes >= limit || placed + words.length - k < bestCount) {
+            return;
+        }
+        nodes++;
+        if (k == words.length) {
+            if (placed > bestCount || placed == bestCount && crossings > bestCrossings) {
+                record();
+            }
+            complete = placed == words.length;
+            return;
+        }
+
+        String w = words[k];
+        int[] buf = slots[k];
+        int n = collect(w, buf);
+        for (int j = n - 1; j >= Math.max(0, n - MAX_BRANCH); j--) {
+            int slot = buf[j] & 0xFFFF;
+            int start = slot >> 1;
+            boolean across = (slot & 1) == 0;
+            int crossed = buf[j] >>> 24;
+            layout.place(w, start / size, start % size, across);
+            pathWord[placed] = k;
+            pathSlot[placed] = slot;
+            crossings += crossed;
+            search(k + 1);
+            crossings -= crossed;
+            layout.removeLast();
+            if (complete) {
+                return;
+            }
+        }
+        search(k + 1);
+    }
+
+    /**
+     * Places de {@code w} qui croisent au moins une lettre posée, rangées dans {@code buf} par
+     * ordre croissant de croisements ; renvoie leur nombre.
+     */
+    private int collect(String w, int[] buf) {
+        int n = 0;
+        stamp++;
+        for (int i = 0; i < w.length(); i++) {
+            int letter = layout.letterIndex(w.charAt(i));
+            if (letter < 0) {
+                continue;
+            }
+            for (int j = 0, count = layout.letterCount(letter); j < count; j++) {
+                int cell = layout.letterCell(letter, j);
+                int row = cell / size, col = cell % size;
+                for (int dir = 0; dir < 2; dir++) {
+                    boolean across = dir == 0;
+                    int r = across ? row : row - i;
+                    int c = across ? col - i : col;
+                    if (r < 0 || c < 0) {
+                        continue;
+                    }
+                    int slot = (r * size + c) * 2 + dir;
+                    if (seen[slot] == stamp) {
+                        continue;
+                    }
+                    seen[slot] = stamp;
+                    int crossed = layout.crossings(w, r, c, across);
+                    if (crossed > 0) {
+                        buf[n++] = crossed << 24 | rand.nextInt(256) << 16 | slot;
+                    }
+                }
+            }
+        }
+        Arrays.sort(buf, 0, n);
+        return n;
+    }
+
+    private void record() {
+        bestCount = layout.getEntries().size();
+        bestCrossings = crossings;
+        System.arraycopy(pathWord, 0, bestWord, 0, bestCount);
+        System.arraycopy(pathSlot, 0, bestSlot, 0, bestCount);
+    }
+}
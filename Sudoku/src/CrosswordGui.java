@@ -2,22 +2,43 @@ import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
 import java.util.List;
-import org.json.JSONObject;
+import java.util.function.BiConsumer;
 
 public class CrosswordGui extends JFrame {
     private static final int SIZE = 12;
+    /**
+     * Cache des définitions, partagé par toutes les fenêtres. Réglages : {@code -Dcrossword.offline=true}
+     * (aucun accès réseau), {@code -Dcrossword.ttlDays=N} (durée de vie d'une définition) et
+     * {@code -Dcrossword.prewarm=fichier} (mots ou {@code mot TAB définition} chargés au démarrage).
+     */
+    private static final Path DEFINITIONS = Paths.get(System.getProperty("user.home"), ".crossword", "definitions.tsv");
+    private static DefinitionCache definitions;
+    /** Requêtes groupées vers l'API ; {@code -Dcrossword.api=url} vise un autre wiki ou un serveur de test. */
+    private static final DefinitionFetcher FETCHER = new DefinitionFetcher(
+            System.getProperty("crossword.api", DefinitionFetcher.WIKTIONARY),
+            Duration.ofSeconds(Long.getLong("crossword.deadlineSeconds", 8)));
+    private static boolean definitionsFailed;
+    /**
+     * Dictionnaire {@code -Dcrossword.words=fichier} (liste de mots ou index {@link WordIndex}),
+     * à la place de {@link #wordPool} ; chargé au premier besoin.
+     */
+    private static WordIndex dictionary;
+    private static boolean dictionaryLoaded;
+    /** Mots d'une grille tirée du dictionnaire. */
+    private static final int DICTIONARY_WORDS = 20;
     private final Cell[][] cells = new Cell[SIZE][SIZE];
     private final JPanel gridPanel;
     private final JPanel cluesPanel;
     private final JLabel statusLabel;
     private final Map<String, Clue> clues = new LinkedHashMap<>();
-    private final Map<String, String> solutions = new HashMap<>();
+    private CrosswordLayout layout;
+    private SwingWorker<?, ?> worker;
 
     private final List<String> wordPool = Arrays.asList(
             "AMOUR","AIMER","LOGIQUE","CARÉMENT","PLEURER","MONDE","VIE","PERDRE",
@@ -103,120 +124,94 @@ public class CrosswordGui extends JFrame {
         setVisible(true);
     }
 
-    /** Génération asynchrone de la grille avec placement logique */
+    /**
+     * Génération asynchrone : le placement ({@link CrosswordLayout}) se fait hors de l'EDT, la
+     * grille est affichée dès qu'il est terminé, puis les définitions arrivent une à une.
+     */
     private void buildGridWithWordsAsync() {
+        if (worker != null) worker.cancel(true);
+        layout = null;
+        selectedKey = null;
         gridPanel.removeAll();
+        gridPanel.revalidate();
+        gridPanel.repaint();
         clues.clear();
-        solutions.clear();
-        statusLabel.setText("Chargement des mots et définitions…");
+        buildClues();
+        statusLabel.setText("Placement des mots…");
 
+        SwingWorker<CrosswordLayout, Void> layoutWorker = new SwingWorker<>() {
+            @Override
+            protected CrosswordLayout doInBackground() {
+                Random rand = new Random();
+                WordIndex dict = dictionary();
+                if (dict != null) return CrosswordLayout.generate(SIZE, dict, DICTIONARY_WORDS, rand);
+                List<String> wordsToPlace = new ArrayList<>(wordPool);
+                Collections.shuffle(wordsToPlace, rand);
+                return CrosswordLayout.generate(SIZE, wordsToPlace, rand);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    layout = get();
+                } catch (Exception e) {
+                    statusLabel.setText("Impossible de générer la grille.");
+                    return;
+                }
+                renderGrid();
+                fetchDefinitionsAsync(layout);
+            }
+        };
+        worker = layoutWorker;
+        layoutWorker.execute();
+    }
+
+    /** Cases de la grille : une case pour chaque lettre posée, un bloc noir ailleurs. */
+    private void renderGrid() {
+        gridPanel.removeAll();
         for (int r=0;r<SIZE;r++)
             for (int c=0;c<SIZE;c++) {
-                cells[r][c] = new Cell(r,c,false);
+                cells[r][c] = new Cell(r,c,layout.isEmpty(r,c));
                 gridPanel.add(cells[r][c].getComponent());
             }
         gridPanel.revalidate();
         gridPanel.repaint();
+    }
 
-        SwingWorker<Void, WordEntry> worker = new SwingWorker<>() {
+    private void fetchDefinitionsAsync(CrosswordLayout placed) {
+        statusLabel.setText("Chargement des définitions…");
+        SwingWorker<Void, WordEntry> definitionWorker = new SwingWorker<>() {
             @Override
             protected Void doInBackground() {
-                Random rand = new Random();
-                List<String> wordsToPlace = new ArrayList<>(wordPool);
-                Collections.shuffle(wordsToPlace);
-
-                int number=1;
-
-                for (String w : wordsToPlace) {
-                    String clueText = fetchDefinitionFromWiktionary(w);
-                    if (clueText==null) clueText = "Indice pour « "+w+" »";
-
-                    boolean placed=false;
-
-                    // Premier mot au centre horizontal
-                    if(number==1){
-                        int r = SIZE/2;
-                        int c = (SIZE-w.length())/2;
-                        if(canPlace(w,r,c,true)){
-                            storeSolution(w,r,c,true); // STOCKE solution mais NE PAS remplir la grille
-                            String key = "A"+number+"_"+r+"_"+c;
-                            clues.put(key,new Clue(number,"Across",r,c,w.length(),number+". "+clueText));
-                            number++;
-                            publish(new WordEntry(w,clueText));
-                            continue;
-                        }
-                    }
-
-                    // Essayer de placer avec croisement
-                    for(int attempt=0;attempt<50 && !placed;attempt++){
-                        boolean horizontal = rand.nextBoolean();
-                        int r = rand.nextInt(SIZE);
-                        int c = rand.nextInt(SIZE-w.length()+1);
-                        for(int i=0;i<w.length() && !placed;i++){
-                            for(int rr=0;rr<SIZE && !placed;rr++){
-                                for(int cc=0;cc<SIZE && !placed;cc++){
-                                    String val = cells[rr][cc].getText();
-                                    if(val.equalsIgnoreCase(""+w.charAt(i))){
-                                        int rStart = horizontal?rr:i;
-                                        int cStart = horizontal?cc-i:cc;
-                                        if(rStart>=0 && rStart<SIZE && cStart>=0 && cStart+ w.length() <=SIZE && canPlace(w,rStart,cStart,horizontal)){
-                                            storeSolution(w,rStart,cStart,horizontal);
-                                            String key = (horizontal?"A":"D")+number+"_"+rStart+"_"+cStart;
-                                            clues.put(key,new Clue(number,horizontal?"Across":"Down",rStart,cStart,w.length(),number+". "+clueText));
-                                            number++;
-                                            publish(new WordEntry(w,clueText));
-                                            placed=true;
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    // Placement aléatoire simple
-                    for(int attempt=0;attempt<50 && !placed;attempt++){
-                        boolean horizontal = rand.nextBoolean();
-                        int r = horizontal ? rand.nextInt(SIZE) : rand.nextInt(SIZE-w.length());
-                        int c = horizontal ? rand.nextInt(SIZE-w.length()) : rand.nextInt(SIZE);
-                        if(canPlace(w,r,c,horizontal)){
-                            storeSolution(w,r,c,horizontal);
-                            String key = (horizontal?"A":"D")+number+"_"+r+"_"+c;
-                            clues.put(key,new Clue(number,horizontal?"Across":"Down",r,c,w.length(),number+". "+clueText));
-                            number++;
-                            publish(new WordEntry(w,clueText));
-                            placed=true;
-                        }
-                    }
-                }
+                Map<String, CrosswordLayout.Entry> entryOf = new LinkedHashMap<>();
+                for (CrosswordLayout.Entry e : placed.getEntries()) entryOf.put(e.getWord(), e);
+                // Chaque indice est publié dès que sa définition arrive, quel que soit le thread
+                lookupDefinitions(entryOf.keySet(), (word, definition) -> {
+                    if (isCancelled()) return;
+                    String clueText = definition!=null ? definition : "Indice pour « "+word+" »";
+                    publish(new WordEntry(entryOf.get(word),clueText));
+                });
                 return null;
             }
 
             @Override
-            protected void process(List<WordEntry> chunks) { buildClues(); }
+            protected void process(List<WordEntry> chunks) {
+                if (isCancelled()) return;
+                for (WordEntry we : chunks) {
+                    CrosswordLayout.Entry e = we.entry;
+                    String direction = e.isAcross()?"Across":"Down";
+                    String key = (e.isAcross()?"A":"D")+e.getNumber()+"_"+e.getRow()+"_"+e.getCol();
+                    clues.put(key,new Clue(e.getNumber(),direction,e.getRow(),e.getCol(),e.length(),e.getNumber()+". "+we.clue));
+                }
+                buildClues();
+            }
 
             @Override
-            protected void done() { buildClues(); statusLabel.setText("Grille prête !"); }
+            protected void done() { if (!isCancelled()) statusLabel.setText("Grille prête !"); }
         };
-        worker.execute();
-    }
-
-    private void storeSolution(String word,int r,int c,boolean horizontal){
-        for(int i=0;i<word.length();i++){
-            int rr = r + (horizontal?0:i);
-            int cc = c + (horizontal?i:0);
-            solutions.put(rr+"_"+cc,""+word.charAt(i)); // stocke solution MAIS NE PAS remplir
-        }
-    }
-
-    private boolean canPlace(String word,int r,int c,boolean horizontal){
-        for(int i=0;i<word.length();i++){
-            int rr = r + (horizontal?0:i);
-            int cc = c + (horizontal?i:0);
-            if(rr>=SIZE || cc>=SIZE) return false;
-            String val = cells[rr][cc].getText();
-            if(!val.equals("") && !val.equals(""+word.charAt(i))) return false;
-        }
-        return true;
+        worker = definitionWorker;
+        definitionWorker.execute();
     }
 
     private void buildClues(){
@@ -258,6 +253,7 @@ public class CrosswordGui extends JFrame {
     private String selectedKey=null;
 
     private void selectClue(String key){
+        if(layout==null) return;
         selectedKey=key;
         for(int r=0;r<SIZE;r++) for(int c=0;c<SIZE;c++) cells[r][c].setHighlight(false);
         Clue cl = clues.get(key);
@@ -271,13 +267,14 @@ public class CrosswordGui extends JFrame {
     }
 
     private void checkAll(){
+        if(layout==null) return;
         boolean allCorrect=true;
         for(int r=0;r<SIZE;r++) for(int c=0;c<SIZE;c++){
             Cell cell = cells[r][c];
             if(!cell.isBlock()){
                 String val = cell.getText().trim();
-                String sol = solutions.get(r+"_"+c);
-                if(sol!=null && val.length()==1){
+                String sol = String.valueOf(layout.letterAt(r,c));
+                if(val.length()==1){
                     if(val.equalsIgnoreCase(sol)) cell.setCorrect(true);
                     else { cell.setCorrect(false); allCorrect=false; }
                 } else { cell.setNeutral(); allCorrect=false; }
@@ -287,24 +284,24 @@ public class CrosswordGui extends JFrame {
     }
 
     private void revealSelected(){
-        if(selectedKey==null) return;
+        if(selectedKey==null || layout==null) return;
         Clue cl = clues.get(selectedKey);
         for(int i=0;i<cl.length;i++){
             int rr = cl.row + ("Down".equals(cl.direction)?i:0);
             int cc = cl.col + ("Across".equals(cl.direction)?i:0);
-            String sol = solutions.get(rr+"_"+cc);
-            if(sol!=null) cells[rr][cc].animateReveal(sol);
+            cells[rr][cc].animateReveal(String.valueOf(layout.letterAt(rr,cc)));
         }
     }
 
     private void revealAll(){
+        if(layout==null) return;
         for(int r=0;r<SIZE;r++) for(int c=0;c<SIZE;c++){
-            String sol = solutions.get(r+"_"+c);
-            if(sol!=null) cells[r][c].animateReveal(sol);
+            if(!layout.isEmpty(r,c)) cells[r][c].animateReveal(String.valueOf(layout.letterAt(r,c)));
         }
     }
 
     private void clearFillable(){
+        if(layout==null) return;
         for(int r=0;r<SIZE;r++) for(int c=0;c<SIZE;c++){
             Cell cell = cells[r][c];
             if(!cell.isBlock()){
@@ -315,42 +312,49 @@ public class CrosswordGui extends JFrame {
         }
     }
 
-    private String fetchDefinitionFromWiktionary(String word){
-        try{
-            String endpoint = "https://en.wiktionary.org/w/api.php?action=query&format=json&prop=extracts&titles="
-                    +word+"&explaintext=1&redirects=1";
-            URL url = new URL(endpoint);
-            HttpURLConnection conn = (HttpURLConnection)url.openConnection();
-            conn.setRequestMethod("GET");
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(15000);
-
-            int status = conn.getResponseCode();
-            if(status!=HttpURLConnection.HTTP_OK) return null;
-
-            BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while((line=reader.readLine())!=null) sb.append(line);
-            reader.close();
-
-            JSONObject obj = new JSONObject(sb.toString());
-            JSONObject query = obj.optJSONObject("query");
-            if(query==null) return null;
-            JSONObject pages = query.optJSONObject("pages");
-            if(pages==null) return null;
-
-            for(String key: pages.keySet()){
-                JSONObject page = pages.optJSONObject(key);
-                if(page==null) continue;
-                String extract = page.optString("extract");
-                if(extract!=null && !extract.isEmpty()){
-                    String[] lines = extract.split("\\r?\\n");
-                    return lines[0];
-                }
+    /**
+     * Définitions de {@code words} par le cache, livrées au fil de l'eau ; sans cache (fichier
+     * inaccessible), directement par {@link #FETCHER}.
+     */
+    private static void lookupDefinitions(Collection<String> words, BiConsumer<String,String> found){
+        DefinitionCache cache = definitionCache();
+        if(cache!=null){ cache.getAll(words, found); return; }
+        Set<String> missing = Collections.synchronizedSet(new LinkedHashSet<>(words));
+        if(!Boolean.getBoolean("crossword.offline")){
+            try{ FETCHER.fetchAll(words, (w,d) -> { if(missing.remove(w)) found.accept(w,d); }); }
+            catch(IOException e){ System.out.println("Impossible de récupérer les définitions : "+e.getMessage()); }
+        }
+        for(String w : new ArrayList<>(missing)) if(missing.remove(w)) found.accept(w,null);
+    }
+
+    private static synchronized DefinitionCache definitionCache(){
+        if(definitions==null && !definitionsFailed){
+            try{
+                definitions = DefinitionCache.open(DEFINITIONS, FETCHER,
+                        Duration.ofDays(Long.getLong("crossword.ttlDays", 30)));
+                definitions.setOffline(Boolean.getBoolean("crossword.offline"));
+                String prewarm = System.getProperty("crossword.prewarm");
+                if(prewarm!=null) System.out.println(definitions.prewarm(Paths.get(prewarm))+" définitions préchargées");
+            }catch(IOException e){
+                System.out.println("Cache des définitions indisponible : "+e.getMessage());
+                definitionsFailed = true;
             }
-        }catch(Exception e){ System.out.println("Impossible de récupérer la définition pour "+word);}
-        return null;
+        }
+        return definitions;
+    }
+
+    private static synchronized WordIndex dictionary(){
+        String path = System.getProperty("crossword.words");
+        if(!dictionaryLoaded && path!=null){
+            dictionaryLoaded = true;
+            try{
+                dictionary = WordIndex.load(Paths.get(path));
+                if(dictionary.size()==0) dictionary = null;
+            }catch(IOException e){
+                System.out.println("Dictionnaire indisponible : "+e.getMessage());
+            }
+        }
+        return dictionary;
     }
 
     private static class Clue{
@@ -419,8 +423,9 @@ public class CrosswordGui extends JFrame {
     }
 
     private static class WordEntry{
-        String word,clue;
-        WordEntry(String w,String c){ word=w; clue=c; }
+        CrosswordLayout.Entry entry;
+        String clue;
+        WordEntry(CrosswordLayout.Entry e,String c){ entry=e; clue=c; }
     }
 
     public static void main(String[] args){
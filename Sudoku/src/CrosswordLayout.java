@@ -0,0 +1,257 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Placement des mots d'une grille de mots croisés, sans interface graphique.
+ * <p>
+ * La grille est un {@code char[]} à plat ({@code row * size + col}, {@link #EMPTY} pour une
+ * case libre), doublé d'un {@code byte[]} qui indique pour chaque case si un mot horizontal
+ * ou vertical la couvre déjà. Un mot ne se pose que s'il respecte les règles d'une grille de
+ * mots croisés : lettres identiques aux croisements, case libre avant et après le mot, pas de
+ * lettre nouvelle collée à une autre sur le côté (ce qui formerait un mot parasite), et pas
+ * de recouvrement par un mot de même sens.
+ * <p>
+ * Les cases posées sont aussi indexées par lettre, pour trouver les croisements possibles
+ * d'un mot sans parcourir la grille. {@link #generate} produit une grille complète, que
+ * {@link CrosswordGui} se contente d'afficher : le placement peut donc tourner sur n'importe
+ * quel thread, et être mesuré sans écran. Une instance n'est pas thread-safe.
+ */
+public final class CrosswordLayout {
+    public static final char EMPTY = 0;
+    private static final byte ACROSS = 1, DOWN = 2;
+
+    /** Un mot posé, numéroté dans l'ordre de placement à partir de 1. */
+    public static final class Entry {
+        private final int number;
+        private final String word;
+        private final int row, col;
+        private final boolean across;
+
+        Entry(int number, String word, int row, int col, boolean across) {
+            this.number = number;
+            this.word = word;
+            this.row = row;
+            this.col = col;
+            this.across = across;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public boolean isAcross() {
+            return across;
+        }
+
+        public int length() {
+            return word.length();
+        }
+    }
+
+    private final int size;
+    private final char[] letters;
+    /** Sens des mots qui couvrent chaque case ({@link #ACROSS}, {@link #DOWN}). */
+    private final byte[] covered;
+    private final List<Entry> entries = new ArrayList<>();
+    /**
+     * Index des lettres posées : lettres distinctes de la grille et, pour chacune, les cases
+     * où elle figure, tenu à jour par {@link #place} et {@link #removeLast}.
+     */
+    private char[] indexLetters = new char[8];
+    private int[][] indexCells = new int[8][];
+    private int[] indexCounts = new int[8];
+    private int indexSize;
+    /** Rang de chaque case posée dans la liste de sa lettre. */
+    private final int[] indexRank;
+
+    public CrosswordLayout(int size) {
+        this.size = size;
+        letters = new char[size * size];
+        covered = new byte[size * size];
+        indexRank = new int[size * size];
+    }
+
+    /**
+     * Grille de {@code size x size} aussi dense que possible avec les mots de {@code words}
+     * ({@link CrosswordFiller}) : tous les mots posés se croisent en un seul bloc, les mots
+     * qui n'y trouvent pas de place sont laissés de côté.
+     */
+    public static CrosswordLayout generate(int size, List<String> words, Random rand) {
+        return new CrosswordFiller(size, rand).fill(words);
+    }
+
+    /**
+     * Grille de {@code size x size} d'au plus {@code maxWords} mots tirés de {@code dict} : chaque
+     * mot est choisi parmi ceux qui respectent les lettres qu'il croise.
+     */
+    public static CrosswordLayout generate(int size, WordIndex dict, int maxWords, Random rand) {
+        return new CrosswordFiller(size, rand).fill(dict, maxWords);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Lettre de la case, {@link #EMPTY} si aucun mot ne la couvre. */
+    public char letterAt(int row, int col) {
+        return letters[row * size + col];
+    }
+
+    public boolean isEmpty(int row, int col) {
+        return letters[row * size + col] == EMPTY;
+    }
+
+    /** Mots posés, dans l'ordre de placement. */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    public boolean canPlace(String word, int row, int col, boolean across) {
+        return crossings(word, row, col, across) >= 0;
+    }
+
+    /**
+     * Nombre de lettres déjà posées que {@code word} croiserait en ({@code row}, {@code col}),
+     * -1 s'il ne peut pas y être posé.
+     */
+    public int crossings(String word, int row, int col, boolean across) {
+        int len = word.length();
+        int dr = across ? 0 : 1, dc = across ? 1 : 0;
+        if (row < 0 || col < 0 || row + dr * (len - 1) >= size || col + dc * (len - 1) >= size) {
+            return -1;
+        }
+        if (occupied(row - dr, col - dc) || occupied(row + dr * len, col + dc * len)) {
+            return -1;
+        }
+        byte dir = across ? ACROSS : DOWN;
+        int crossed = 0;
+        for (int i = 0, r = row, c = col; i < len; i++, r += dr, c += dc) {
+            int cell = r * size + c;
+            char ch = letters[cell];
+            if (ch != EMPTY) {
+                if (ch != word.charAt(i) || (covered[cell] & dir) != 0) {
+                    return -1;
+                }
+                crossed++;
+            } else if (occupied(r - dc, c - dr) || occupied(r + dc, c + dr)) {
+                return -1;
+            }
+        }
+        return crossed < len ? crossed : -1;
+    }
+
+    /** Pose {@code word} sans vérifier qu'il a sa place ({@link #canPlace}). */
+    public Entry place(String word, int row, int col, boolean across) {
+        int dr = across ? 0 : 1, dc = across ? 1 : 0;
+        byte dir = across ? ACROSS : DOWN;
+        for (int i = 0, cell = row * size + col; i < word.length(); i++, cell += dr * size + dc) {
+            if (letters[cell] == EMPTY) {
+                letters[cell] = word.charAt(i);
+                index(cell);
+            }
+            covered[cell] |= dir;
+        }
+        Entry entry = new Entry(entries.size() + 1, word, row, col, across);
+        entries.add(entry);
+        return entry;
+    }
+
+    /** Retire le dernier mot posé ; les lettres qu'il partage avec un autre mot restent. */
+    public void removeLast() {
+        Entry e = entries.remove(entries.size() - 1);
+        int step = e.across ? 1 : size;
+        byte dir = e.across ? ACROSS : DOWN;
+        for (int i = 0, cell = e.row * size + e.col; i < e.length(); i++, cell += step) {
+            covered[cell] &= ~dir;
+            if (covered[cell] == 0) {
+                unindex(cell);
+                letters[cell] = EMPTY;
+            }
+        }
+    }
+
+    /** Rang de {@code ch} dans l'index des lettres posées, -1 si la lettre n'est pas dans la grille. */
+    int letterIndex(char ch) {
+        for (int k = 0; k < indexSize; k++) {
+            if (indexLetters[k] == ch) {
+                return indexCounts[k] > 0 ? k : -1;
+            }
+        }
+        return -1;
+    }
+
+    /** Nombre de cases qui portent la lettre de rang {@code letter}. */
+    int letterCount(int letter) {
+        return indexCounts[letter];
+    }
+
+    /** {@code k}-ième case qui porte la lettre de rang {@code letter}. */
+    int letterCell(int letter, int k) {
+        return indexCells[letter][k];
+    }
+
+    private void index(int cell) {
+        char ch = letters[cell];
+        int k = 0;
+        while (k < indexSize && indexLetters[k] != ch) {
+            k++;
+        }
+        if (k == indexSize) {
+            if (k == indexLetters.length) {
+                indexLetters = Arrays.copyOf(indexLetters, k * 2);
+                indexCells = Arrays.copyOf(indexCells, k * 2);
+                indexCounts = Arrays.copyOf(indexCounts, k * 2);
+            }
+            indexLetters[k] = ch;
+            indexCells[k] = new int[8];
+            indexSize++;
+        }
+        int n = indexCounts[k]++;
+        if (n == indexCells[k].length) {
+            indexCells[k] = Arrays.copyOf(indexCells[k], n * 2);
+        }
+        indexCells[k][n] = cell;
+        indexRank[cell] = n;
+    }
+
+    /** Retrait en temps constant : la dernière case de la liste prend la place de {@code cell}. */
+    private void unindex(int cell) {
+        int k = letterIndex(letters[cell]);
+        int[] cells = indexCells[k];
+        int last = cells[--indexCounts[k]];
+        cells[indexRank[cell]] = last;
+        indexRank[last] = indexRank[cell];
+    }
+
+    private boolean occupied(int row, int col) {
+        return row >= 0 && row < size && col >= 0 && col < size && letters[row * size + col] != EMPTY;
+    }
+
+    /** Grille ligne par ligne, '.' pour une case libre. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size * (size + 1));
+        for (int cell = 0; cell < letters.length; cell++) {
+            sb.append(letters[cell] == EMPTY ? '.' : letters[cell]);
+            if (cell % size == size - 1) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Une étape de résolution : soit une valeur à poser, soit des candidats à éliminer, avec les
+ * cases qui forment le motif justifiant la déduction.
+ * <p>
+ * L'objet est réutilisé d'une étape à l'autre par {@link DeductionFinder} pour ne rien allouer
+ * pendant la notation ; {@link #copy()} en fait un instantané à conserver.
+ */
+public final class Deduction {
+    private static final int MAX = SudokuGeometry.of(SudokuGeometry.MAX_BOX).cells;
+
+    Technique technique;
+    int cell = -1;
+    int value;
+    /** Chiffres concernés par le motif (bit {@code v - 1}). */
+    int digits;
+    final int[] elimCells = new int[MAX];
+    final int[] elimMasks = new int[MAX];
+    int elimCount;
+    final int[] pattern = new int[MAX];
+    int patternCount;
+
+    void reset(Technique technique) {
+        this.technique = technique;
+        cell = -1;
+        value = 0;
+        digits = 0;
+        elimCount = 0;
+        patternCount = 0;
+    }
+
+    void addPattern(int c) {
+        pattern[patternCount++] = c;
+    }
+
+    void addElimination(int c, int mask) {
+        elimCells[elimCount] = c;
+        elimMasks[elimCount++] = mask;
+    }
+
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    public boolean isPlacement() {
+        return cell >= 0;
+    }
+
+    public int getCell() {
+        return cell;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    public int getEliminationCount() {
+        return elimCount;
+    }
+
+    public int getEliminationCell(int i) {
+        return elimCells[i];
+    }
+
+    public int getEliminationMask(int i) {
+        return elimMasks[i];
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    public int getPatternCell(int i) {
+        return pattern[i];
+    }
+
+    /** Applique la déduction à la grille de candidats. */
+    public void applyTo(CandidateGrid grid) {
+        if (isPlacement()) {
+            grid.place(cell, value);
+            return;
+        }
+        for (int i = 0; i < elimCount; i++) {
+            grid.eliminate(elimCells[i], elimMasks[i]);
+        }
+    }
+
+    public Deduction copy() {
+        Deduction d = new Deduction();
+        d.technique = technique;
+        d.cell = cell;
+        d.value = value;
+        d.digits = digits;
+        d.elimCount = elimCount;
+        d.patternCount = patternCount;
+        System.arraycopy(elimCells, 0, d.elimCells, 0, elimCount);
+        System.arraycopy(elimMasks, 0, d.elimMasks, 0, elimCount);
+        System.arraycopy(pattern, 0, d.pattern, 0, patternCount);
+        return d;
+    }
+}
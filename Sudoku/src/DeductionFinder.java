@@ -0,0 +1,335 @@
+/**
+ * Cherche la déduction la plus simple applicable à une {@link CandidateGrid}, en essayant les
+ * techniques dans l'ordre de {@link Technique}. Seules les déductions qui changent effectivement
+ * la grille (pose ou élimination d'au moins un candidat) sont renvoyées.
+ */
+public final class DeductionFinder {
+    private static final int NAKED = 0, HIDDEN = 1, FISH_ROWS = 2, FISH_COLUMNS = 3;
+    private static final int MAX_SIZE = SudokuGeometry.MAX_BOX * SudokuGeometry.MAX_BOX;
+
+    /** Éléments candidats d'un sous-ensemble (cases, chiffres ou lignes) et leurs masques. */
+    private final int[] items = new int[MAX_SIZE];
+    private final int[] masks = new int[MAX_SIZE];
+    private final int[] chosen = new int[3];
+
+    /** Géométrie de la grille en cours d'analyse. */
+    private SudokuGeometry geo;
+    private int[][] units;
+    private int size;
+    private int boxSize;
+
+    /** Remplit {@code out} avec la déduction la plus simple ; faux si aucune technique ne s'applique. */
+    public boolean find(CandidateGrid g, Deduction out) {
+        geo = g.getGeometry();
+        units = geo.units;
+        size = geo.size;
+        boxSize = geo.box;
+        return hiddenSingle(g, out)
+                || nakedSingle(g, out)
+                || pointing(g, out)
+                || boxLine(g, out)
+                || nakedSubset(g, out, 2)
+                || hiddenSubset(g, out, 2)
+                || nakedSubset(g, out, 3)
+                || hiddenSubset(g, out, 3)
+                || fish(g, out, 2)
+                || fish(g, out, 3);
+    }
+
+    private boolean hiddenSingle(CandidateGrid g, Deduction out) {
+        for (int unit = 0; unit < geo.unitCount(); unit++) {
+            for (int d = 0; d < size; d++) {
+                int pos = g.positions(unit, 1 << d);
+                if (Integer.bitCount(pos) == 1) {
+                    out.reset(Technique.HIDDEN_SINGLE);
+                    out.cell = units[unit][Integer.numberOfTrailingZeros(pos)];
+                    out.value = d + 1;
+                    out.digits = 1 << d;
+                    for (int cell : units[unit]) {
+                        out.addPattern(cell);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean nakedSingle(CandidateGrid g, Deduction out) {
+        for (int cell = 0; cell < geo.cells; cell++) {
+            int cand = g.candidates(cell);
+            if (Integer.bitCount(cand) == 1) {
+                out.reset(Technique.NAKED_SINGLE);
+                out.cell = cell;
+                out.value = Integer.numberOfTrailingZeros(cand) + 1;
+                out.digits = cand;
+                out.addPattern(cell);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Un chiffre confiné à une ligne (ou colonne) d'un bloc est éliminé du reste de cette ligne. */
+    private boolean pointing(CandidateGrid g, Deduction out) {
+        for (int b = 0; b < size; b++) {
+            int box = 2 * size + b;
+            for (int d = 0; d < size; d++) {
+                int bit = 1 << d;
+                int pos = g.positions(box, bit);
+                if (Integer.bitCount(pos) < 2) {
+                    continue;
+                }
+                int line = -1;
+                if (sameGroup(pos, rowsOfBox(pos))) {
+                    line = units[box][Integer.numberOfTrailingZeros(pos)] / size;
+                } else if (sameGroup(pos, colsOfBox(pos))) {
+                    line = size + units[box][Integer.numberOfTrailingZeros(pos)] % size;
+                }
+                if (line >= 0 && eliminateOutside(g, out, Technique.POINTING, line, box, bit)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Un chiffre confiné à un seul bloc dans une ligne (ou colonne) est éliminé du reste du bloc. */
+    private boolean boxLine(CandidateGrid g, Deduction out) {
+        for (int line = 0; line < 2 * size; line++) {
+            for (int d = 0; d < size; d++) {
+                int bit = 1 << d;
+                int pos = g.positions(line, bit);
+                if (Integer.bitCount(pos) < 2 || !sameGroup(pos, segmentsOfLine(pos))) {
+                    continue;
+                }
+                int cell = units[line][Integer.numberOfTrailingZeros(pos)];
+                int box = geo.cellUnits[cell][2];
+                if (eliminateOutside(g, out, Technique.BOX_LINE, box, line, bit)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameGroup(int pos, int groups) {
+        return pos != 0 && Integer.bitCount(groups) == 1;
+    }
+
+    /** Lignes du bloc (bit 0 à boxSize - 1) occupées par les positions {@code pos}. */
+    private int rowsOfBox(int pos) {
+        int rows = 0;
+        for (int r = 0; r < boxSize; r++) {
+            if ((pos & (((1 << boxSize) - 1) << (r * boxSize))) != 0) {
+                rows |= 1 << r;
+            }
+        }
+        return rows;
+    }
+
+    private int colsOfBox(int pos) {
+        int cols = 0;
+        for (int i = 0; i < size; i++) {
+            if ((pos & (1 << i)) != 0) {
+                cols |= 1 << (i % boxSize);
+            }
+        }
+        return cols;
+    }
+
+    private int segmentsOfLine(int pos) {
+        int segments = 0;
+        for (int i = 0; i < size; i++) {
+            if ((pos & (1 << i)) != 0) {
+                segments |= 1 << (i / boxSize);
+            }
+        }
+        return segments;
+    }
+
+    /** Élimine {@code bit} des cases de {@code target} qui ne sont pas dans {@code source}. */
+    private boolean eliminateOutside(CandidateGrid g, Deduction out, Technique t, int target, int source, int bit) {
+        out.reset(t);
+        out.digits = bit;
+        for (int cell : units[target]) {
+            if ((g.candidates(cell) & bit) != 0 && !contains(units[source], cell)) {
+                out.addElimination(cell, bit);
+            }
+        }
+        if (out.elimCount == 0) {
+            return false;
+        }
+        for (int cell : units[source]) {
+            if ((g.candidates(cell) & bit) != 0) {
+                out.addPattern(cell);
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] cells, int cell) {
+        for (int c : cells) {
+            if (c == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Paire / triplet nu : k cases d'une unité dont les candidats tiennent en k chiffres. */
+    private boolean nakedSubset(CandidateGrid g, Deduction out, int k) {
+        for (int unit = 0; unit < geo.unitCount(); unit++) {
+            int n = 0;
+            for (int cell : units[unit]) {
+                int count = Integer.bitCount(g.candidates(cell));
+                if (count >= 2 && count <= k) {
+                    items[n] = cell;
+                    masks[n++] = g.candidates(cell);
+                }
+            }
+            if (findSubset(g, out, NAKED, unit, n, k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Paire / triplet caché : k chiffres d'une unité confinés à k cases. */
+    private boolean hiddenSubset(CandidateGrid g, Deduction out, int k) {
+        for (int unit = 0; unit < geo.unitCount(); unit++) {
+            int n = 0;
+            for (int d = 0; d < size; d++) {
+                int pos = g.positions(unit, 1 << d);
+                int count = Integer.bitCount(pos);
+                if (count >= 2 && count <= k) {
+                    items[n] = d;
+                    masks[n++] = pos;
+                }
+            }
+            if (findSubset(g, out, HIDDEN, unit, n, k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** X-Wing (k = 2) et Swordfish (k = 3), en prenant lignes puis colonnes comme base. */
+    private boolean fish(CandidateGrid g, Deduction out, int k) {
+        for (int d = 0; d < size; d++) {
+            for (int mode = FISH_ROWS; mode <= FISH_COLUMNS; mode++) {
+                int base = mode == FISH_ROWS ? 0 : size;
+                int n = 0;
+                for (int i = 0; i < size; i++) {
+                    int pos = g.positions(base + i, 1 << d);
+                    int count = Integer.bitCount(pos);
+                    if (count >= 2 && count <= k) {
+                        items[n] = base + i;
+                        masks[n++] = pos;
+                    }
+                }
+                if (findSubset(g, out, mode, d, n, k)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Essaie les combinaisons de k éléments dont l'union des masques compte exactement k bits. */
+    private boolean findSubset(CandidateGrid g, Deduction out, int mode, int context, int n, int k) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int union = masks[i] | masks[j];
+                chosen[0] = i;
+                chosen[1] = j;
+                if (k == 2) {
+                    if (Integer.bitCount(union) == 2 && apply(g, out, mode, context, union, 2)) {
+                        return true;
+                    }
+                    continue;
+                }
+                if (Integer.bitCount(union) > 3) {
+                    continue;
+                }
+                for (int l = j + 1; l < n; l++) {
+                    chosen[2] = l;
+                    if (Integer.bitCount(union | masks[l]) == 3 && apply(g, out, mode, context, union | masks[l], 3)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean apply(CandidateGrid g, Deduction out, int mode, int context, int union, int k) {
+        switch (mode) {
+            case NAKED: {
+                out.reset(k == 2 ? Technique.NAKED_PAIR : Technique.NAKED_TRIPLE);
+                out.digits = union;
+                for (int cell : units[context]) {
+                    if (g.value(cell) == 0 && !isChosen(cell, k) && (g.candidates(cell) & union) != 0) {
+                        out.addElimination(cell, union);
+                    }
+                }
+                for (int i = 0; i < k; i++) {
+                    out.addPattern(items[chosen[i]]);
+                }
+                break;
+            }
+            case HIDDEN: {
+                int digits = 0;
+                for (int i = 0; i < k; i++) {
+                    digits |= 1 << items[chosen[i]];
+                }
+                out.reset(k == 2 ? Technique.HIDDEN_PAIR : Technique.HIDDEN_TRIPLE);
+                out.digits = digits;
+                for (int i = 0; i < size; i++) {
+                    if ((union & (1 << i)) != 0) {
+                        int cell = units[context][i];
+                        out.addPattern(cell);
+                        int extra = g.candidates(cell) & ~digits;
+                        if (extra != 0) {
+                            out.addElimination(cell, extra);
+                        }
+                    }
+                }
+                break;
+            }
+            default: {
+                int bit = 1 << context;
+                int cover = mode == FISH_ROWS ? size : 0;
+                out.reset(k == 2 ? Technique.X_WING : Technique.SWORDFISH);
+                out.digits = bit;
+                for (int i = 0; i < size; i++) {
+                    if ((union & (1 << i)) == 0) {
+                        continue;
+                    }
+                    int[] line = units[cover + i];
+                    for (int j = 0; j < size; j++) {
+                        int cell = line[j];
+                        if ((g.candidates(cell) & bit) == 0) {
+                            continue;
+                        }
+                        if (isChosen(mode == FISH_ROWS ? j : size + j, k)) {
+                            out.addPattern(cell);
+                        } else {
+                            out.addElimination(cell, bit);
+                        }
+                    }
+                }
+            }
+        }
+        return out.elimCount > 0;
+    }
+
+    private boolean isChosen(int item, int k) {
+        for (int i = 0; i < k; i++) {
+            if (items[chosen[i]] == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,409 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache des définitions des mots croisés : une LRU en mémoire devant un fichier qui garde
+ * les définitions d'une session à l'autre.
+ * <p>
+ * Le fichier est un journal texte en ajout seul, une ligne par définition
+ * ({@code date TAB mot TAB définition}, tabulations, retours à la ligne et barres obliques
+ * inverses échappés) ; la dernière ligne d'un mot l'emporte. À l'ouverture, seuls le mot, la
+ * date et la position de chaque ligne sont gardés en mémoire ; la définition est relue sur
+ * disque quand elle n'est pas dans la LRU. Le fichier est réécrit sans les lignes remplacées
+ * quand elles deviennent majoritaires.
+ * <p>
+ * Une entrée plus vieille que la durée de vie est redemandée au {@link Fetcher}, sauf hors
+ * ligne : le cache ne sert alors que ce qu'il a, même périmé, sans jamais toucher au réseau.
+ * Un mot sans définition est aussi retenu (définition vide), pour ne pas le redemander à
+ * chaque grille. Après une erreur réseau, le cache passe hors ligne pendant
+ * {@link #FAILURE_COOLDOWN} : sans réseau, une grille n'attend qu'un seul délai d'expiration.
+ * {@link #getAll} demande en une fois au {@link Fetcher} tous les mots qui manquent. Les
+ * méthodes sont synchronisées, sauf l'appel au {@link Fetcher}.
+ */
+public final class DefinitionCache implements Closeable {
+    /** Recherche d'une définition sur le réseau ; null si le mot n'en a pas. */
+    public interface Fetcher {
+        String fetch(String word) throws IOException;
+
+        /**
+         * Cherche plusieurs mots et livre chaque définition à {@code found} dès qu'elle est
+         * connue, éventuellement depuis plusieurs threads. Par défaut, un mot après l'autre.
+         */
+        default void fetchAll(Collection<String> words, BiConsumer<String, String> found) throws IOException {
+            for (String word : words) {
+                found.accept(word, fetch(word));
+            }
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final Duration FAILURE_COOLDOWN = Duration.ofMinutes(5);
+    /** Mots demandés ensemble au {@link Fetcher} par {@link #prewarm}. */
+    private static final int PREWARM_CHUNK = 200;
+
+    /** Position d'une ligne dans le fichier et date de la définition. */
+    private static final class Slot {
+        final long offset;
+        final long time;
+
+        Slot(long offset, long time) {
+            this.offset = offset;
+            this.time = time;
+        }
+    }
+
+    private final Path path;
+    private RandomAccessFile file;
+    private final Map<String, Slot> index = new HashMap<>();
+    private final Map<String, String> recent;
+    private final Fetcher fetcher;
+    private final long ttlMillis;
+    private boolean offline;
+    private long offlineUntil;
+    /** Lignes du fichier remplacées par une ligne plus récente du même mot. */
+    private int stale;
+
+    private DefinitionCache(Path path, Fetcher fetcher, Duration ttl, int capacity) {
+        this.path = path;
+        this.fetcher = fetcher;
+        this.ttlMillis = ttl.toMillis();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Ouvre (ou crée) le cache de {@code path}. */
+    public static DefinitionCache open(Path path, Fetcher fetcher, Duration ttl) throws IOException {
+        return open(path, fetcher, ttl, DEFAULT_CAPACITY);
+    }
+
+    public static DefinitionCache open(Path path, Fetcher fetcher, Duration ttl, int capacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        DefinitionCache cache = new DefinitionCache(path, fetcher, ttl, capacity);
+        cache.file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            cache.load();
+        } catch (IOException | RuntimeException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
+    }
+
+    /** Hors ligne, seules les entrées déjà en cache sont servies. */
+    public synchronized void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    public synchronized boolean isOffline() {
+        return offline || System.currentTimeMillis() < offlineUntil;
+    }
+
+    /** Nombre de mots en cache, avec ou sans définition. */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Définition de {@code word} : celle du cache si elle est encore fraîche ou si le cache
+     * est hors ligne, sinon celle du {@link Fetcher}, qui est alors retenue. Renvoie null si
+     * le mot n'a pas de définition connue.
+     */
+    public String get(String word) {
+        String cached;
+        synchronized (this) {
+            boolean noNetwork = isOffline();
+            cached = cached(word, noNetwork);
+            if (cached != null || noNetwork) {
+                return cached == null || cached.isEmpty() ? null : cached;
+            }
+        }
+        return fetch(word);
+    }
+
+    /**
+     * Définitions de tous les {@code words}, livrées à {@code found} au fil de l'eau (null
+     * pour un mot sans définition connue) : d'abord celles du cache, puis celles qui
+     * manquaient, demandées ensemble au {@link Fetcher#fetchAll}. Chaque mot est livré une
+     * fois, éventuellement depuis un autre thread ; la méthode rend la main quand tous
+     * l'ont été.
+     */
+    public void getAll(Collection<String> words, BiConsumer<String, String> found) {
+        Set<String> missing = ConcurrentHashMap.newKeySet();
+        synchronized (this) {
+            boolean noNetwork = isOffline();
+            for (String word : words) {
+                String cached = cached(word, noNetwork);
+                if (cached != null || noNetwork) {
+                    found.accept(word, cached == null || cached.isEmpty() ? null : cached);
+                } else {
+                    missing.add(word);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            fetcher.fetchAll(new ArrayList<>(missing), (word, definition) -> {
+                if (missing.remove(word)) {
+                    try {
+                        put(word, definition);
+                    } catch (IOException e) {
+                        // Le cache disque est en panne : la définition sert quand même cette fois
+                    }
+                    found.accept(word, definition == null || definition.isEmpty() ? null : definition);
+                }
+            });
+        } catch (IOException e) {
+            failed();
+        }
+        for (String word : missing) {
+            if (missing.remove(word)) {
+                found.accept(word, peek(word));
+            }
+        }
+    }
+
+    /** Définition en cache de {@code word}, même périmée, sans jamais appeler le réseau ; null sinon. */
+    public synchronized String peek(String word) {
+        String cached = cached(word, true);
+        return cached == null || cached.isEmpty() ? null : cached;
+    }
+
+    /** Retient {@code definition} pour {@code word} (null ou vide : le mot n'a pas de définition). */
+    public synchronized void put(String word, String definition) throws IOException {
+        String value = definition == null ? "" : definition;
+        long time = System.currentTimeMillis();
+        long offset = file.length();
+        file.seek(offset);
+        file.write((time + "\t" + escape(word) + "\t" + escape(value) + "\n").getBytes(StandardCharsets.UTF_8));
+        if (index.put(word, new Slot(offset, time)) != null) {
+            stale++;
+        }
+        recent.put(word, value);
+        if (stale > DEFAULT_CAPACITY && stale > index.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Remplit le cache depuis un fichier texte, une ligne par mot : {@code mot TAB définition}
+     * est retenu tel quel, un mot seul est cherché sur le réseau par paquets de
+     * {@link #PREWARM_CHUNK} s'il n'a pas d'entrée fraîche (et ignoré hors ligne). Renvoie le
+     * nombre de mots du fichier qui ont une définition.
+     */
+    public int prewarm(Path words) throws IOException {
+        AtomicInteger known = new AtomicInteger();
+        BiConsumer<String, String> count = (word, definition) -> {
+            if (definition != null) {
+                known.incrementAndGet();
+            }
+        };
+        List<String> bare = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(words, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                String word = (tab < 0 ? line : line.substring(0, tab)).trim();
+                if (word.isEmpty()) {
+                    continue;
+                }
+                if (tab >= 0) {
+                    String definition = line.substring(tab + 1).trim();
+                    put(word, definition);
+                    count.accept(word, definition.isEmpty() ? null : definition);
+                } else {
+                    bare.add(word);
+                    if (bare.size() == PREWARM_CHUNK) {
+                        getAll(bare, count);
+                        bare.clear();
+                    }
+                }
+            }
+        }
+        getAll(bare, count);
+        return known.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+    }
+
+    private String fetch(String word) {
+        String definition;
+        try {
+            definition = fetcher.fetch(word);
+        } catch (IOException e) {
+            failed();
+            return peek(word);
+        }
+        try {
+            put(word, definition);
+        } catch (IOException e) {
+            // Le cache disque est en panne : la définition sert quand même cette fois
+        }
+        return definition == null || definition.isEmpty() ? null : definition;
+    }
+
+    /** Erreur réseau : le cache reste hors ligne quelque temps. */
+    private synchronized void failed() {
+        offlineUntil = System.currentTimeMillis() + FAILURE_COOLDOWN.toMillis();
+    }
+
+    /** Entrée de {@code word} (vide s'il n'a pas de définition), null si absente ou périmée sans {@code evenStale}. */
+    private String cached(String word, boolean evenStale) {
+        Slot slot = index.get(word);
+        if (slot == null || !evenStale && System.currentTimeMillis() - slot.time > ttlMillis) {
+            return null;
+        }
+        String value = recent.get(word);
+        if (value == null) {
+            try {
+                value = readDefinition(slot.offset);
+            } catch (IOException e) {
+                return null;
+            }
+            recent.put(word, value);
+        }
+        return value;
+    }
+
+    /** Lit l'index : mot et date de chaque ligne, la dernière l'emportant. Une ligne tronquée en fin de fichier est coupée. */
+    private void load() throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        file.seek(0);
+        file.readFully(data);
+        int start = 0;
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            if (end == data.length) {
+                file.setLength(start);
+                break;
+            }
+            String line = new String(data, start, end - start, StandardCharsets.UTF_8);
+            int t1 = line.indexOf('\t');
+            int t2 = t1 < 0 ? -1 : line.indexOf('\t', t1 + 1);
+            if (t2 > 0) {
+                try {
+                    long time = Long.parseLong(line.substring(0, t1));
+                    if (index.put(unescape(line.substring(t1 + 1, t2)), new Slot(start, time)) != null) {
+                        stale++;
+                    }
+                } catch (NumberFormatException e) {
+                    stale++;
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    private String readDefinition(long offset) throws IOException {
+        file.seek(offset);
+        byte[] buf = new byte[256];
+        int len = 0;
+        while (true) {
+            int n = file.read(buf, len, buf.length - len);
+            if (n < 0) {
+                break;
+            }
+            int end = len + n;
+            for (; len < end; len++) {
+                if (buf[len] == '\n') {
+                    n = -1;
+                    break;
+                }
+            }
+            if (n < 0) {
+                break;
+            }
+            if (len == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+        }
+        String text = new String(buf, 0, len, StandardCharsets.UTF_8);
+        return unescape(text.substring(text.indexOf('\t', text.indexOf('\t') + 1) + 1));
+    }
+
+    /**
+     * Réécrit le fichier avec la seule dernière ligne de chaque mot, dans un fichier voisin
+     * qui remplace ensuite l'ancien : un arrêt brutal pendant la réécriture ne perd rien.
+     */
+    private void compact() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Map<String, Slot> moved = new HashMap<>();
+        for (Map.Entry<String, Slot> e : index.entrySet()) {
+            String definition = readDefinition(e.getValue().offset);
+            moved.put(e.getKey(), new Slot(out.size(), e.getValue().time));
+            out.write((e.getValue().time + "\t" + escape(e.getKey()) + "\t" + escape(definition) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, out.toByteArray());
+        file.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        file = new RandomAccessFile(path.toFile(), "rw");
+        index.putAll(moved);
+        stale = 0;
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '\\': sb.append("\\\\"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                default: sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Définitions des mots croisés tirées de l'API MediaWiki ({@code action=query&prop=extracts}).
+ * <p>
+ * Les mots sont demandés par lots de {@link #BATCH} titres ({@code titles=A|B|C}), tous les
+ * lots en même temps sur un seul {@link HttpClient} réutilisé, en asynchrone. Chaque
+ * définition est livrée dès que la réponse de son lot est lue, sans attendre les autres.
+ * L'API ne renvoie le texte complet que d'une page par réponse et indique la suivante par
+ * {@code excontinue} ; le lot est alors relancé à partir de là.
+ * <p>
+ * Les réponses sont lues en flux ({@link JsonScanner}), sans arbre JSON : seule la première
+ * ligne de l'extrait est gardée, et la lecture s'arrête dès qu'elle est trouvée, si bien
+ * qu'une longue page ne coûte guère plus qu'une courte. Un délai global borne l'ensemble :
+ * passé ce délai, les lots en cours sont abandonnés.
+ * <p>
+ * L'adresse de l'API se règle, pour viser un autre wiki ou un serveur local de test.
+ */
+public final class DefinitionFetcher implements DefinitionCache.Fetcher {
+    public static final String WIKTIONARY = "https://en.wiktionary.org/w/api.php";
+    /**
+     * Titres par lot. Un lot coûte un aller-retour par page (un extrait complet par réponse) :
+     * des lots courts, lancés en parallèle, bornent la durée totale à quelques allers-retours.
+     */
+    private static final int BATCH = 5;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(3);
+
+    private final HttpClient client;
+    private final String api;
+    private final Duration deadline;
+
+    public DefinitionFetcher(String api, Duration deadline) {
+        this.api = api;
+        this.deadline = deadline;
+        client = HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public String fetch(String word) throws IOException {
+        Map<String, String> found = new HashMap<>();
+        fetchAll(List.of(word), found::put);
+        return found.get(word);
+    }
+
+    /**
+     * Cherche toutes les définitions de {@code words} et les livre à {@code found} au fil des
+     * réponses, depuis les threads du client ({@code null} pour un mot sans définition).
+     * Rend la main quand tout est livré, ou au délai global.
+     *
+     * @throws IOException si un lot a échoué ou si le délai est dépassé ; les définitions
+     *                     déjà livrées restent valables
+     */
+    @Override
+    public void fetchAll(Collection<String> words, BiConsumer<String, String> found) throws IOException {
+        long end = System.nanoTime() + deadline.toNanos();
+        List<String> all = new ArrayList<>(new LinkedHashSet<>(words));
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += BATCH) {
+            List<String> titles = all.subList(from, Math.min(from + BATCH, all.size()));
+            batches.add(batch(titles, new LinkedHashSet<>(titles), null, end, found));
+        }
+        CompletableFuture<Void> done = CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]));
+        try {
+            done.get(Math.max(0, end - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            batches.forEach(b -> b.cancel(true));
+            throw new HttpTimeoutException("Délai dépassé pour les définitions");
+        } catch (InterruptedException e) {
+            batches.forEach(b -> b.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Recherche des définitions interrompue", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * Un lot : une requête pour {@code titles}, puis une par {@code excontinue} tant que des
+     * mots de {@code pending} n'ont pas été livrés.
+     */
+    private CompletableFuture<Void> batch(List<String> titles, Set<String> pending, String cont, long end,
+                                          BiConsumer<String, String> found) {
+        long remaining = end - System.nanoTime();
+        if (remaining <= 0) {
+            return CompletableFuture.failedFuture(new HttpTimeoutException("Délai dépassé pour les définitions"));
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri(titles, cont))
+                .timeout(Duration.ofNanos(remaining))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenCompose(response -> {
+                    String next;
+                    // Fermer le flux abandonne la fin de la réponse, que l'on n'a pas eu besoin de lire
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new IOException("HTTP " + response.statusCode());
+                        }
+                        next = new Reply(titles, pending, found)
+                                .read(new JsonScanner(new InputStreamReader(body, StandardCharsets.UTF_8)));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                    if (next != null && !pending.isEmpty()) {
+                        return batch(titles, pending, next, end, found);
+                    }
+                    for (String word : pending) {
+                        found.accept(word, null);
+                    }
+                    pending.clear();
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    private URI uri(List<String> titles, String cont) {
+        StringBuilder sb = new StringBuilder(api)
+                .append(api.indexOf('?') < 0 ? '?' : '&')
+                .append("action=query&format=json&prop=extracts&explaintext=1&redirects=1&exlimit=max&titles=")
+                .append(URLEncoder.encode(String.join("|", titles), StandardCharsets.UTF_8));
+        if (cont != null) {
+            sb.append("&excontinue=").append(URLEncoder.encode(cont, StandardCharsets.UTF_8));
+        }
+        return URI.create(sb.toString());
+    }
+
+    /**
+     * Lecture en flux d'une réponse de l'API, dans l'ordre où MediaWiki l'écrit :
+     * {@code continue}, puis dans {@code query} les titres {@code normalized} et
+     * {@code redirects}, puis les {@code pages} (titre avant extrait). Seule la première ligne
+     * de l'extrait est gardée. Si {@code continue} a déjà été lu, la lecture s'arrête sur cette
+     * ligne : le reste de la page, souvent l'essentiel de la réponse, n'est même pas reçu.
+     */
+    private static final class Reply {
+        private final Set<String> pending;
+        private final BiConsumer<String, String> found;
+        /** Titre de page -> mot demandé, à travers la normalisation puis les redirections. */
+        private final Map<String, String> wordOf = new HashMap<>();
+        private String cont;
+        private boolean contRead;
+
+        Reply(List<String> titles, Set<String> pending, BiConsumer<String, String> found) {
+            this.pending = pending;
+            this.found = found;
+            for (String t : titles) {
+                wordOf.put(t, t);
+            }
+        }
+
+        /**
+         * Livre les pages qui ont un extrait (ou qui n'existent pas) et renvoie la valeur de
+         * {@code excontinue}, null s'il n'y a plus rien à demander.
+         */
+        String read(JsonScanner json) throws IOException {
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "continue":
+                        readContinue(json);
+                        break;
+                    case "query":
+                        if (readQuery(json)) {
+                            return cont;
+                        }
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            return cont;
+        }
+
+        private void readContinue(JsonScanner json) throws IOException {
+            contRead = true;
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("excontinue")) {
+                    cont = json.nextScalar();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+
+        /** Vrai si la lecture peut s'arrêter là. */
+        private boolean readQuery(JsonScanner json) throws IOException {
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "normalized":
+                    case "redirects":
+                        readRenames(json);
+                        break;
+                    case "pages":
+                        json.beginObject();
+                        while (json.hasNext()) {
+                            json.nextName();
+                            if (readPage(json)) {
+                                return true;
+                            }
+                        }
+                        json.endObject();
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            return false;
+        }
+
+        private void readRenames(JsonScanner json) throws IOException {
+            json.beginArray();
+            while (json.hasNext()) {
+                String from = null, to = null;
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "from":
+                            from = json.nextString();
+                            break;
+                        case "to":
+                            to = json.nextString();
+                            break;
+                        default:
+                            json.skipValue();
+                    }
+                }
+                json.endObject();
+                String word = from == null ? null : wordOf.get(from);
+                if (word != null && to != null) {
+                    wordOf.put(to, word);
+                }
+            }
+            json.endArray();
+        }
+
+        /** Vrai si un extrait a été livré et que la lecture peut s'arrêter là. */
+        private boolean readPage(JsonScanner json) throws IOException {
+            String word = null;
+            boolean missing = false;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "title":
+                        String w = wordOf.get(json.nextString());
+                        word = w != null && pending.contains(w) ? w : null;
+                        break;
+                    case "missing":
+                    case "invalid":
+                        missing = true;
+                        json.skipValue();
+                        break;
+                    case "extract":
+                        if (word == null) {
+                            json.skipValue();
+                            break;
+                        }
+                        pending.remove(word);
+                        found.accept(word, json.nextFirstLine());
+                        if (contRead) {
+                            return true;
+                        }
+                        word = null;
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            if (missing && word != null) {
+                pending.remove(word);
+                found.accept(word, null);
+            }
+            return false;
+        }
+    }
+}
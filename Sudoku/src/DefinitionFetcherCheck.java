@@ -0,0 +1,247 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONObject;
+
+/**
+ * Vérification de {@link DefinitionFetcher} contre une API MediaWiki simulée, sur un port
+ * local : aucun accès réseau.
+ * <p>
+ * Le serveur imite {@code action=query&prop=extracts} : un seul extrait complet par réponse,
+ * la page suivante indiquée par {@code excontinue} (un nombre, comme la vraie API), et
+ * {@code continue} écrit avant {@code query}. Les titres en {@code _} sont normalisés,
+ * {@code VIE} est redirigé vers {@code Vie}, les titres en {@code ZZ} n'existent pas,
+ * {@code LONG} a un extrait de plusieurs mégaoctets et {@code ERREUR} fait répondre HTTP 500.
+ * Chaque vérification affiche OK ou ÉCHEC ; le code de sortie est 1 au moindre échec.
+ *
+ * <pre>
+ * java DefinitionFetcherCheck
+ * </pre>
+ */
+public class DefinitionFetcherCheck {
+    /** Taille de l'extrait de {@code LONG}. */
+    private static final int LONG_EXTRACT = 4 << 20;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int delayMillis;
+    private int failures;
+
+    public static void main(String[] args) throws IOException {
+        DefinitionFetcherCheck check = new DefinitionFetcherCheck();
+        check.run();
+        System.out.println(check.failures == 0 ? "Toutes les vérifications passent." : check.failures + " échec(s).");
+        System.exit(check.failures == 0 ? 0 : 1);
+    }
+
+    private void run() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-api");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.createContext("/w/api.php", this::answer);
+        server.start();
+        String api = "http://localhost:" + server.getAddress().getPort() + "/w/api.php";
+        try {
+            checkBatches(api);
+            checkDeadline(api);
+            checkHttpError(api);
+        } finally {
+            server.stop(0);
+        }
+        checkServerDown(api);
+    }
+
+    /** Redirections, normalisation, pages absentes, suites {@code excontinue} et long extrait. */
+    private void checkBatches(String api) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            words.add("MOT" + i);
+        }
+        words.add("VIE");
+        words.add("MOT_CLE");
+        words.add("ZZZ");
+        words.add("LONG");
+        words.add("ÉCOLE");
+
+        Map<String, String> found = new ConcurrentHashMap<>();
+        Map<String, Integer> deliveries = new ConcurrentHashMap<>();
+        requests.set(0);
+        delayMillis = 0;
+        try {
+            new DefinitionFetcher(api, Duration.ofSeconds(20)).fetchAll(words, (w, d) -> {
+                found.put(w, d == null ? "<aucune>" : d);
+                deliveries.merge(w, 1, Integer::sum);
+            });
+        } catch (IOException e) {
+            check(false, "lots : " + e);
+            return;
+        }
+        check(found.keySet().containsAll(words) && found.size() == words.size(), "chaque mot est livré");
+        check(deliveries.values().stream().allMatch(n -> n == 1), "chaque mot est livré une seule fois");
+        check("Définition de MOT7".equals(found.get("MOT7")), "extrait suivi par excontinue : " + found.get("MOT7"));
+        check("Définition de Vie".equals(found.get("VIE")), "redirection : " + found.get("VIE"));
+        check("Définition de MOT CLE".equals(found.get("MOT_CLE")), "normalisation : " + found.get("MOT_CLE"));
+        check("<aucune>".equals(found.get("ZZZ")), "page absente : " + found.get("ZZZ"));
+        check("Définition de LONG".equals(found.get("LONG")), "long extrait : " + found.get("LONG"));
+        check("Définition de ÉCOLE".equals(found.get("ÉCOLE")), "accents : " + found.get("ÉCOLE"));
+        // Une requête par page qui a un extrait : une par mot, sauf la page absente
+        check(requests.get() == words.size() - 1, "requêtes : " + requests.get() + " pour " + words.size() + " mots");
+    }
+
+    private void checkDeadline(String api) {
+        delayMillis = 300;
+        long start = System.nanoTime();
+        try {
+            new DefinitionFetcher(api, Duration.ofMillis(200)).fetchAll(List.of("MOT1", "MOT2"), (w, d) -> { });
+            check(false, "délai global : aucune exception");
+        } catch (HttpTimeoutException e) {
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            check(ms < 1_000, "délai global respecté (" + ms + " ms)");
+        } catch (IOException e) {
+            check(false, "délai global : " + e);
+        } finally {
+            delayMillis = 0;
+        }
+    }
+
+    private void checkHttpError(String api) {
+        try {
+            new DefinitionFetcher(api, Duration.ofSeconds(5)).fetchAll(List.of("ERREUR"), (w, d) -> { });
+            check(false, "HTTP 500 : aucune exception");
+        } catch (IOException e) {
+            check(e.getMessage() != null && e.getMessage().contains("500"), "HTTP 500 signalé : " + e.getMessage());
+        }
+    }
+
+    private void checkServerDown(String api) {
+        try {
+            new DefinitionFetcher(api, Duration.ofSeconds(5)).fetchAll(List.of("MOT1"), (w, d) -> { });
+            check(false, "serveur arrêté : aucune exception");
+        } catch (IOException e) {
+            check(true, "serveur arrêté signalé : " + e.getClass().getSimpleName());
+        }
+    }
+
+    private void check(boolean ok, String what) {
+        System.out.println((ok ? "OK     " : "ÉCHEC  ") + what);
+        if (!ok) {
+            failures++;
+        }
+    }
+
+    /** Réponse de l'API simulée. */
+    private void answer(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Map<String, String> query = new HashMap<>();
+            for (String pair : exchange.getRequestURI().getRawQuery().split("&")) {
+                String[] kv = pair.split("=", 2);
+                query.put(kv[0], kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "");
+            }
+            String[] titles = query.get("titles").split("\\|");
+            if (List.of(titles).contains("ERREUR")) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            int from = Integer.parseInt(query.getOrDefault("excontinue", "0"));
+
+            StringBuilder normalized = new StringBuilder();
+            StringBuilder redirects = new StringBuilder();
+            StringBuilder pages = new StringBuilder();
+            String longExtract = null;
+            int next = -1;
+            boolean extractSent = false;
+            for (int i = 0; i < titles.length; i++) {
+                String title = titles[i];
+                if (title.indexOf('_') >= 0) {
+                    String to = title.replace('_', ' ');
+                    append(normalized, "{\"from\":" + JSONObject.quote(title) + ",\"to\":" + JSONObject.quote(to) + "}");
+                    title = to;
+                }
+                if (title.equals("VIE")) {
+                    append(redirects, "{\"from\":\"VIE\",\"to\":\"Vie\"}");
+                    title = "Vie";
+                }
+                String page = "{\"title\":" + JSONObject.quote(title);
+                if (title.startsWith("ZZ")) {
+                    append(pages, "\"-" + (i + 1) + "\":" + page + ",\"missing\":\"\"}");
+                    continue;
+                }
+                if (i >= from && !extractSent) {
+                    extractSent = true;
+                    if (title.equals("LONG")) {
+                        // Envoyé à part, en flux : le client peut couper avant la fin
+                        longExtract = "\"" + (100 + i) + "\":" + page + ",\"extract\":\"\\n\\nDéfinition de LONG\\n";
+                        continue;
+                    }
+                    page += ",\"extract\":" + JSONObject.quote("\n\nDéfinition de " + title + "\nSuite de la page.\n");
+                } else if (i >= from && next < 0) {
+                    next = i;
+                }
+                append(pages, "\"" + (100 + i) + "\":" + page + "}");
+            }
+
+            StringBuilder head = new StringBuilder("{");
+            if (next >= 0) {
+                head.append("\"continue\":{\"excontinue\":").append(next).append(",\"continue\":\"||\"},");
+            }
+            head.append("\"query\":{");
+            if (normalized.length() > 0) {
+                head.append("\"normalized\":[").append(normalized).append("],");
+            }
+            if (redirects.length() > 0) {
+                head.append("\"redirects\":[").append(redirects).append("],");
+            }
+            head.append("\"pages\":{").append(pages);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            try {
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                if (longExtract != null) {
+                    out.write(((pages.length() > 0 ? "," : "") + longExtract).getBytes(StandardCharsets.UTF_8));
+                    byte[] filler = "Lorem ipsum dolor sit amet.\\n".getBytes(StandardCharsets.UTF_8);
+                    for (int written = 0; written < LONG_EXTRACT; written += filler.length) {
+                        out.write(filler);
+                    }
+                    out.write("\"}".getBytes(StandardCharsets.UTF_8));
+                }
+                out.write("}}}".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // Le client a fermé la connexion après la ligne qui l'intéressait
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void append(StringBuilder sb, String item) {
+        if (sb.length() > 0) {
+            sb.append(',');
+        }
+        sb.append(item);
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * Sudoku diagonal (Sudoku X) : chacune des deux grandes diagonales contient toutes les
+ * valeurs une fois. Les diagonales sont deux unités de plus pour le plateau.
+ */
+public final class DiagonalConstraint implements SudokuConstraint {
+    @Override
+    public int[][] units(int box) {
+        int size = box * box;
+        int[][] diagonals = new int[2][size];
+        for (int i = 0; i < size; i++) {
+            diagonals[0][i] = i * size + i;
+            diagonals[1][i] = i * size + (size - 1 - i);
+        }
+        return diagonals;
+    }
+
+    /** Sans état : la même instance sert à tous les plateaux. */
+    @Override
+    public SudokuConstraint copy() {
+        return this;
+    }
+}
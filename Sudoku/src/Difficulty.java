@@ -0,0 +1,46 @@
+/**
+ * Niveaux de difficulté proposés au joueur, avec le nombre d'indices visé lors du carving
+ * (donné pour une grille 9x9, mis à l'échelle pour les autres tailles).
+ */
+public enum Difficulty {
+    EASY("Facile", 36),
+    MEDIUM("Moyen", 30),
+    HARD("Difficile", 25);
+
+    private final String label;
+    private final int targetClues;
+
+    Difficulty(String label, int targetClues) {
+        this.label = label;
+        this.targetClues = targetClues;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getTargetClues() {
+        return targetClues;
+    }
+
+    /** Nombre d'indices visé pour des blocs de {@code box x box}, proportionnel au nombre de cases. */
+    public int getTargetClues(int box) {
+        int cells = box * box * box * box;
+        return Math.round(targetClues * cells / 81f);
+    }
+
+    /** Accepte le nom de la constante ou le libellé français, sans tenir compte de la casse. */
+    public static Difficulty parse(String text) {
+        for (Difficulty d : values()) {
+            if (d.name().equalsIgnoreCase(text) || d.label.equalsIgnoreCase(text)) {
+                return d;
+            }
+        }
+        throw new IllegalArgumentException("Difficulté inconnue : " + text);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Note une grille en la résolvant uniquement avec les techniques de {@link Technique}, de la
+ * plus simple à la plus difficile, sur une {@link CandidateGrid} mise à jour pas à pas.
+ * <p>
+ * Le score additionne le poids de chaque technique utilisée ; une grille que ces techniques
+ * ne suffisent pas à terminer reçoit {@link #UNSOLVED_PENALTY} en plus et est classée difficile.
+ * Une instance réutilise ses tampons et n'est pas thread-safe.
+ */
+public final class DifficultyGrader {
+    public static final int UNSOLVED_PENALTY = 100;
+
+    public static final class Grade {
+        private final Technique hardest;
+        private final int score;
+        private final int steps;
+        private final boolean solved;
+
+        Grade(Technique hardest, int score, int steps, boolean solved) {
+            this.hardest = hardest;
+            this.score = score;
+            this.steps = steps;
+            this.solved = solved;
+        }
+
+        /** Technique la plus difficile utilisée, {@code null} si la grille était déjà complète. */
+        public Technique getHardest() {
+            return hardest;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getSteps() {
+            return steps;
+        }
+
+        /** Faux si les techniques connues ne suffisent pas (ou si la grille est contradictoire). */
+        public boolean isSolved() {
+            return solved;
+        }
+
+        public Difficulty getDifficulty() {
+            if (!solved) {
+                return Difficulty.HARD;
+            }
+            return hardest == null ? Difficulty.EASY : hardest.toDifficulty();
+        }
+
+        @Override
+        public String toString() {
+            return getDifficulty() + " (" + (solved ? hardest : "au-delà des techniques") + ", score " + score + ")";
+        }
+    }
+
+    private CandidateGrid grid = new CandidateGrid();
+    private final DeductionFinder finder = new DeductionFinder();
+    private final Deduction step = new Deduction();
+
+    /** Note une grille à plat de n'importe quelle taille gérée (16, 81, 256 ou 625 cases). */
+    public Grade grade(int[] puzzle) {
+        if (grid.getGeometry().cells != puzzle.length) {
+            grid = new CandidateGrid(SudokuGeometry.forCells(puzzle.length).box);
+        }
+        if (!grid.load(puzzle)) {
+            return new Grade(null, UNSOLVED_PENALTY, 0, false);
+        }
+        Technique hardest = null;
+        int score = 0;
+        int steps = 0;
+        while (!grid.isSolved()) {
+            if (!finder.find(grid, step)) {
+                return new Grade(hardest, score + UNSOLVED_PENALTY, steps, false);
+            }
+            step.applyTo(grid);
+            steps++;
+            score += step.getTechnique().getWeight();
+            if (hardest == null || step.getTechnique().compareTo(hardest) > 0) {
+                hardest = step.getTechnique();
+            }
+            if (!step.isPlacement() && grid.hasContradiction()) {
+                return new Grade(hardest, score + UNSOLVED_PENALTY, steps, false);
+            }
+        }
+        return new Grade(hardest, score, steps, true);
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Solveur exact-cover (Algorithme X de Knuth, "Dancing Links") pour les grilles 4x4 à 25x25.
+ * <p>
+ * La matrice de couverture (size³ lignes x 4·size² contraintes, soit 729 x 324 en 9x9) est construite une seule fois dans
+ * des tableaux d'entiers ; chaque résolution couvre les indices donnés puis cherche en
+ * choisissant toujours la contrainte la moins fournie. La structure est intégralement
+ * restaurée à la fin de chaque appel, le même solveur peut donc être réutilisé.
+ * Une instance n'est pas thread-safe.
+ */
+public final class DlxSolver {
+    private static final int ROOT = 0;
+
+    private final SudokuGeometry geo;
+    private final int n;
+    private final int cells;
+    private final int[] left, right, up, down, column, rowOf, size;
+    private final int[] rowStart;
+    private final int[] chosen;
+    private final int[] solution;
+    private final int[] givenRows;
+
+    private int maxSolutions;
+    private long maxNodes;
+    private long nodes;
+    private int found;
+    private boolean aborted;
+
+    public DlxSolver() {
+        this(3);
+    }
+
+    public DlxSolver(int box) {
+        geo = SudokuGeometry.of(box);
+        n = geo.size;
+        cells = geo.cells;
+        int columns = 4 * cells;
+        int rows = n * cells;
+        rowStart = new int[rows];
+        chosen = new int[cells];
+        solution = new int[cells];
+        givenRows = new int[cells];
+
+        int total = 1 + columns + rows * 4;
+        left = new int[total];
+        right = new int[total];
+        up = new int[total];
+        down = new int[total];
+        column = new int[total];
+        rowOf = new int[total];
+        size = new int[columns + 1];
+
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c - 1;
+            right[c] = c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+        left[ROOT] = columns;
+        right[columns] = ROOT;
+
+        int node = columns + 1;
+        int[] cols = new int[4];
+        for (int r = 0; r < rows; r++) {
+            int cell = r / n, val = r % n;
+            cols[0] = 1 + cell;
+            cols[1] = 1 + cells + geo.row[cell] * n + val;
+            cols[2] = 1 + 2 * cells + geo.col[cell] * n + val;
+            cols[3] = 1 + 3 * cells + geo.boxOf[cell] * n + val;
+            rowStart[r] = node;
+            for (int k = 0; k < 4; k++) {
+                int col = cols[k];
+                column[node] = col;
+                rowOf[node] = r;
+                up[node] = up[col];
+                down[node] = col;
+                down[up[col]] = node;
+                up[col] = node;
+                size[col]++;
+                left[node] = k == 0 ? node + 3 : node - 1;
+                right[node] = k == 3 ? node - 3 : node + 1;
+                node++;
+            }
+        }
+    }
+
+    /**
+     * Résout la grille (size² cases à plat, 0 = vide).
+     *
+     * @param maxSolutions arrêt dès que ce nombre de solutions est atteint (2 suffit pour tester l'unicité)
+     * @param maxNodes     nombre maximal de lignes essayées avant abandon ({@link #isAborted()})
+     * @return le nombre de solutions trouvées, borné par {@code maxSolutions}
+     */
+    public int solve(int[] grille, int maxSolutions, long maxNodes) {
+        this.maxSolutions = maxSolutions;
+        this.maxNodes = maxNodes;
+        this.nodes = 0;
+        this.found = 0;
+        this.aborted = false;
+
+        int givens = 0;
+        boolean conflict = false;
+        for (int cell = 0; cell < cells && !conflict; cell++) {
+            int val = grille[cell];
+            if (val == 0) {
+                continue;
+            }
+            int start = rowStart[cell * n + val - 1];
+            int node = start;
+            do {
+                if (isCovered(column[node])) {
+                    conflict = true;
+                    break;
+                }
+                node = right[node];
+            } while (node != start);
+            if (!conflict) {
+                selectRow(start);
+                givenRows[givens++] = start;
+            }
+        }
+
+        if (!conflict) {
+            System.arraycopy(grille, 0, chosen, 0, cells);
+            search();
+        }
+
+        for (int i = givens - 1; i >= 0; i--) {
+            unselectRow(givenRows[i]);
+        }
+        return found;
+    }
+
+    public int solve(int[][] grille, int maxSolutions, long maxNodes) {
+        return solve(flatten(grille), maxSolutions, maxNodes);
+    }
+
+    public int countSolutions(int[] grille, int limit) {
+        return solve(grille, limit, Long.MAX_VALUE);
+    }
+
+    public boolean hasUniqueSolution(int[] grille) {
+        return countSolutions(grille, 2) == 1;
+    }
+
+    /** Première solution trouvée par le dernier appel, ou {@code null}. */
+    public int[] getSolution() {
+        return found > 0 ? solution.clone() : null;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public int getBoxSize() {
+        return geo.box;
+    }
+
+    public static int[] flatten(int[][] grille) {
+        int n = grille.length;
+        int[] flat = new int[n * n];
+        for (int l = 0; l < n; l++) {
+            System.arraycopy(grille[l], 0, flat, l * n, n);
+        }
+        return flat;
+    }
+
+    private boolean search() {
+        if (right[ROOT] == ROOT) {
+            if (found == 0) {
+                System.arraycopy(chosen, 0, solution, 0, cells);
+            }
+            found++;
+            return found >= maxSolutions;
+        }
+
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT && size[best] > 1; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+            }
+        }
+        if (size[best] == 0) {
+            return false;
+        }
+
+        cover(best);
+        boolean stop = false;
+        for (int r = down[best]; r != best && !stop; r = down[r]) {
+            if (++nodes > maxNodes) {
+                aborted = true;
+                stop = true;
+                break;
+            }
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            int row = rowOf[r];
+            chosen[row / n] = row % n + 1;
+            stop = search();
+            chosen[row / n] = 0;
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(best);
+        return stop;
+    }
+
+    private boolean isCovered(int col) {
+        return right[left[col]] != col;
+    }
+
+    private void selectRow(int start) {
+        int n = start;
+        do {
+            cover(column[n]);
+            n = right[n];
+        } while (n != start);
+    }
+
+    private void unselectRow(int start) {
+        int n = left[start];
+        do {
+            uncover(column[n]);
+            n = left[n];
+        } while (n != left[start]);
+    }
+
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Indices pour le joueur : la déduction la plus simple applicable à la grille en cours, avec
+ * les cases qui la justifient, calculée par {@link DeductionFinder} sur une
+ * {@link CandidateGrid} gardée en cache.
+ * <p>
+ * La grille de candidats suit la partie : une valeur posée est propagée de façon incrémentale
+ * ({@link CandidateGrid#place}), et les éliminations des indices déjà donnés sont conservées.
+ * Seul l'effacement ou le remplacement d'une valeur oblige à tout recalculer, au prochain
+ * {@link #next()}. Un indice ne coûte donc que la recherche de la technique, sans réallocation.
+ * Une instance n'est pas thread-safe.
+ */
+public final class HintEngine {
+    private final SudokuGeometry geo;
+    private final CandidateGrid grid;
+    private final DeductionFinder finder = new DeductionFinder();
+    private final Deduction hint = new Deduction();
+    private final int[] values;
+    private int[] solution;
+    private boolean dirty;
+
+    public HintEngine(int box) {
+        geo = SudokuGeometry.of(box);
+        grid = new CandidateGrid(box);
+        values = new int[geo.cells];
+    }
+
+    /** Repart de la grille {@code grille} (à plat, 0 = vide) et de sa solution, si elle est connue. */
+    public void reset(int[] grille, int[] solution) {
+        System.arraycopy(grille, 0, values, 0, geo.cells);
+        this.solution = solution;
+        dirty = true;
+    }
+
+    /** À appeler à chaque changement de case (0 pour une case vidée). */
+    public void set(int cell, int val) {
+        int old = values[cell];
+        if (old == val) {
+            return;
+        }
+        values[cell] = val;
+        if (old == 0 && !dirty && (grid.candidates(cell) & (1 << (val - 1))) != 0) {
+            grid.place(cell, val);
+        } else {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Première case remplie dont la valeur diffère de la solution, -1 s'il n'y en a pas (ou si
+     * la solution n'est pas connue). Les déductions n'ont de sens que sur une grille sans erreur.
+     */
+    public int firstMistake() {
+        if (solution == null) {
+            return -1;
+        }
+        for (int cell = 0; cell < geo.cells; cell++) {
+            if (values[cell] != 0 && values[cell] != solution[cell]) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Déduction la plus simple applicable, {@code null} si aucune technique connue ne
+     * s'applique (ou si la grille est contradictoire). L'objet rendu est réutilisé par l'appel
+     * suivant ; {@link Deduction#copy()} pour le garder.
+     */
+    public Deduction next() {
+        if (dirty) {
+            dirty = false;
+            if (!grid.load(values)) {
+                dirty = true;
+                return null;
+            }
+        }
+        if (grid.isSolved() || grid.hasContradiction() || !finder.find(grid, hint)) {
+            return null;
+        }
+        return hint;
+    }
+
+    /**
+     * Retient une déduction d'élimination rendue par {@link #next()} : les candidats éliminés le
+     * restent pour les indices suivants. Une déduction qui pose une valeur passe par {@link #set}.
+     */
+    public void accept(Deduction d) {
+        if (!d.isPlacement() && !dirty) {
+            d.applyTo(grid);
+        }
+    }
+
+    /** Candidats restants de la case (bit {@code v - 1}), pour les annotations automatiques. */
+    public int candidates(int cell) {
+        if (dirty) {
+            next();
+        }
+        return grid.candidates(cell);
+    }
+
+    /** Explication en une phrase, cases numérotées (ligne, colonne) à partir de 1. */
+    public String describe(Deduction d) {
+        StringBuilder sb = new StringBuilder(d.getTechnique().getLabel()).append(" : ");
+        if (d.isPlacement()) {
+            return sb.append(position(d.getCell())).append(" = ").append(SudokuGeometry.symbol(d.getValue())).toString();
+        }
+        sb.append("retirer ");
+        for (int i = 0; i < d.getEliminationCount(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(digits(d.getEliminationMask(i)))
+                    .append(" de ").append(position(d.getEliminationCell(i)));
+        }
+        sb.append(" (motif ").append(digits(d.getDigits())).append(" en ");
+        for (int i = 0; i < d.getPatternCount(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(position(d.getPatternCell(i)));
+        }
+        return sb.append(')').toString();
+    }
+
+    private String position(int cell) {
+        return "(" + (geo.row[cell] + 1) + "," + (geo.col[cell] + 1) + ")";
+    }
+
+    private static String digits(int mask) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int m = mask; m != 0; m &= m - 1) {
+            sb.append(sb.length() > 1 ? "," : "").append(SudokuGeometry.symbol(Integer.numberOfTrailingZeros(m) + 1));
+        }
+        return sb.append('}').toString();
+    }
+}
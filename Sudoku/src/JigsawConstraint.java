@@ -0,0 +1,45 @@
+/**
+ * Sudoku « puzzle » (Jigsaw) : les blocs carrés sont remplacés par des régions irrégulières
+ * de {@code size} cases chacune, qui deviennent les blocs de la géométrie du plateau.
+ */
+public final class JigsawConstraint implements SudokuConstraint {
+    private final int[] regionOf;
+
+    /** {@code regionOf[cell]} : région de la case, de 0 à {@code size - 1}. */
+    public JigsawConstraint(int[] regionOf) {
+        this.regionOf = regionOf.clone();
+    }
+
+    /**
+     * Régions décrites par un caractère par case (81 en 9x9) : les cases qui portent le même
+     * caractère forment une région, numérotée dans l'ordre de première apparition.
+     */
+    public static JigsawConstraint parse(String layout) {
+        int[] regionOf = new int[layout.length()];
+        StringBuilder seen = new StringBuilder();
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            char ch = layout.charAt(cell);
+            int region = seen.indexOf(String.valueOf(ch));
+            if (region < 0) {
+                region = seen.length();
+                seen.append(ch);
+            }
+            regionOf[cell] = region;
+        }
+        return new JigsawConstraint(regionOf);
+    }
+
+    @Override
+    public int[] regions(int box) {
+        if (regionOf.length != box * box * box * box) {
+            throw new IllegalArgumentException("Découpage de " + regionOf.length + " cases pour une grille "
+                    + box * box + "x" + box * box);
+        }
+        return regionOf.clone();
+    }
+
+    @Override
+    public SudokuConstraint copy() {
+        return this;
+    }
+}
@@ -0,0 +1,255 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lecture JSON en flux, jeton par jeton, sans construire d'arbre.
+ * <p>
+ * L'appelant parcourt le document dans l'ordre ({@link #beginObject}, {@link #hasNext},
+ * {@link #nextName}, ...) et saute ce qui ne l'intéresse pas avec {@link #skipValue}, qui
+ * avance sans rien allouer. Il peut s'arrêter à tout moment : rien n'est lu au-delà du
+ * tampon courant. {@link #nextFirstLine} ne garde que la première ligne d'une chaîne, ce qui
+ * suffit pour une définition tirée d'une page entière.
+ * <p>
+ * Le document est supposé bien formé ; une erreur de syntaxe lève une {@link IOException}.
+ */
+final class JsonScanner {
+    private final Reader in;
+    private final char[] buf = new char[4096];
+    private int pos;
+    private int limit;
+    /** Reste d'une chaîne laissé par {@link #nextFirstLine}, sauté seulement si la lecture continue. */
+    private boolean skipRest;
+
+    JsonScanner(Reader in) {
+        this.in = in;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+    }
+
+    /** Vrai s'il reste un membre dans l'objet ou le tableau courant ; passe la virgule. */
+    boolean hasNext() throws IOException {
+        int c = peek();
+        if (c == ',') {
+            pos++;
+            c = peek();
+        }
+        return c != '}' && c != ']';
+    }
+
+    String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    String nextString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        for (int c = stringChar(); c >= 0; c = stringChar()) {
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    /** Valeur scalaire suivante sous forme de texte : chaîne, nombre, {@code true}, ... */
+    String nextScalar() throws IOException {
+        if (peek() == '"') {
+            return nextString();
+        }
+        StringBuilder sb = new StringBuilder();
+        while (fill() && !isDelimiter(buf[pos])) {
+            sb.append(buf[pos++]);
+        }
+        if (sb.length() == 0) {
+            throw new IOException("Valeur attendue");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Première ligne non vide de la chaîne suivante, sans les blancs qui l'entourent, null
+     * s'il n'y en a pas. Le reste de la chaîne n'est pas lu ; il sera sauté sans être gardé
+     * si la lecture continue.
+     */
+    String nextFirstLine() throws IOException {
+        expect('"');
+        StringBuilder line = new StringBuilder();
+        for (int c = stringChar(); c >= 0; c = stringChar()) {
+            if (c == '\n') {
+                if (line.length() > 0) {
+                    skipRest = true;
+                    break;
+                }
+            } else if (line.length() > 0 || !Character.isWhitespace(c)) {
+                line.append((char) c);
+            }
+        }
+        String first = line.toString().trim();
+        return first.isEmpty() ? null : first;
+    }
+
+    /** Saute la valeur suivante, quelle qu'elle soit. */
+    void skipValue() throws IOException {
+        switch (peek()) {
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    skipString(nextChar());
+                    expect(':');
+                    skipValue();
+                }
+                endObject();
+                break;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case '"':
+                pos++;
+                skipString();
+                break;
+            default:
+                // Nombre, true, false ou null : jusqu'au prochain séparateur
+                while (fill() && !isDelimiter(buf[pos])) {
+                    pos++;
+                }
+        }
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == ',' || c == '}' || c == ']' || Character.isWhitespace(c);
+    }
+
+    private void skipString(int quote) throws IOException {
+        if (quote != '"') {
+            throw new IOException("Chaîne attendue");
+        }
+        skipString();
+    }
+
+    /** Avance jusqu'après le guillemet fermant, par blocs du tampon. */
+    private void skipString() throws IOException {
+        while (true) {
+            if (!fill()) {
+                throw new EOFException("Chaîne non terminée");
+            }
+            char c = buf[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                if (!fill()) {
+                    throw new EOFException("Chaîne non terminée");
+                }
+                pos++;
+            }
+        }
+    }
+
+    /** Caractère suivant de la chaîne en cours, échappements résolus ; -1 au guillemet fermant. */
+    private int stringChar() throws IOException {
+        char c = nextRaw();
+        if (c == '"') {
+            return -1;
+        }
+        if (c != '\\') {
+            return c;
+        }
+        c = nextRaw();
+        switch (c) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextRaw(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Échappement \\u invalide");
+                    }
+                    code = code << 4 | digit;
+                }
+                return code;
+            default:
+                return c;
+        }
+    }
+
+    private char nextRaw() throws IOException {
+        if (!fill()) {
+            throw new EOFException("Chaîne non terminée");
+        }
+        return buf[pos++];
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = nextChar();
+        if (c != expected) {
+            throw new IOException("'" + expected + "' attendu, lu " + (c < 0 ? "fin du flux" : "'" + (char) c + "'"));
+        }
+    }
+
+    /** Caractère suivant hors blancs, consommé ; -1 en fin de flux. */
+    private int nextChar() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            pos++;
+        }
+        return c;
+    }
+
+    /** Caractère suivant hors blancs, sans le consommer ; -1 en fin de flux. */
+    private int peek() throws IOException {
+        if (skipRest) {
+            skipRest = false;
+            skipString();
+        }
+        while (fill()) {
+            char c = buf[pos];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    /** Vrai s'il reste au moins un caractère dans le tampon, après l'avoir rechargé au besoin. */
+    private boolean fill() throws IOException {
+        if (pos < limit) {
+            return true;
+        }
+        int n;
+        do {
+            n = in.read(buf, 0, buf.length);
+        } while (n == 0);
+        pos = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+}
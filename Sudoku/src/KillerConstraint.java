@@ -0,0 +1,220 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Killer Sudoku : des cages de cases voisines, chacune avec une somme ; les valeurs d'une
+ * cage sont toutes différentes et leur total vaut la somme de la cage.
+ * <p>
+ * Pour chaque cage, les combinaisons de valeurs distinctes qui atteignent la somme sont
+ * calculées une fois, sous forme de masques. Les candidats d'une case de la cage sont alors
+ * l'union des combinaisons qui contiennent déjà toutes les valeurs posées dans la cage,
+ * moins ces valeurs : un OU sur quelques masques, recalculé seulement quand la cage change.
+ * Limité aux grilles 16x16 au plus (au-delà, les combinaisons d'une grande cage sont trop
+ * nombreuses pour être énumérées).
+ */
+public final class KillerConstraint implements SudokuConstraint {
+    private final int box;
+    /** Cage de chaque case, -1 hors cage. */
+    private final int[] cageOf;
+    private final int[] sums;
+    /** Combinaisons de chaque cage (bit {@code v - 1} pour la valeur {@code v}). */
+    private final int[][] combos;
+    /** Valeurs posées dans chaque cage, et candidats qui en découlent. */
+    private final int[] used;
+    private final int[] allowed;
+
+    /**
+     * @param cageOf cage de chaque case (de 0 à {@code sums.length - 1}), -1 pour une case hors cage
+     * @param sums   somme de chaque cage
+     */
+    public KillerConstraint(int box, int[] cageOf, int[] sums) {
+        this(box, cageOf.clone(), sums.clone(), buildCombos(box, cageOf, sums));
+    }
+
+    private KillerConstraint(int box, int[] cageOf, int[] sums, int[][] combos) {
+        this.box = box;
+        this.cageOf = cageOf;
+        this.sums = sums;
+        this.combos = combos;
+        this.used = new int[sums.length];
+        this.allowed = new int[sums.length];
+        reset();
+    }
+
+    private static int[][] buildCombos(int box, int[] cageOf, int[] sums) {
+        if (box > 4) {
+            throw new IllegalArgumentException("Killer Sudoku limité aux grilles 16x16");
+        }
+        int size = box * box;
+        if (cageOf.length != size * size) {
+            throw new IllegalArgumentException("Découpage de " + cageOf.length + " cases pour une grille " + size + "x" + size);
+        }
+        int[] cageSize = new int[sums.length];
+        for (int cage : cageOf) {
+            if (cage >= 0) {
+                cageSize[cage]++;
+            }
+        }
+        int[][] combos = new int[sums.length][];
+        List<Integer> found = new ArrayList<>();
+        for (int cage = 0; cage < sums.length; cage++) {
+            found.clear();
+            enumerate(size, 1, cageSize[cage], sums[cage], 0, found);
+            if (found.isEmpty()) {
+                throw new IllegalArgumentException("Aucune combinaison de " + cageSize[cage]
+                        + " valeurs distinctes ne fait " + sums[cage] + " (cage " + cage + ")");
+            }
+            combos[cage] = found.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return combos;
+    }
+
+    /** Ajoute à {@code out} les ensembles de {@code count} valeurs de {@code from..size}, de total {@code sum}. */
+    private static void enumerate(int size, int from, int count, int sum, int mask, List<Integer> out) {
+        if (count == 0) {
+            if (sum == 0) {
+                out.add(mask);
+            }
+            return;
+        }
+        for (int v = from; v <= size; v++) {
+            // les count - 1 valeurs suivantes valent au moins v + 1, v + 2...
+            int min = v * count + count * (count - 1) / 2;
+            if (min > sum) {
+                return;
+            }
+            enumerate(size, v + 1, count - 1, sum - v, mask | 1 << (v - 1), out);
+        }
+    }
+
+    /**
+     * Cages tirées au hasard sur une grille complète : des cases voisines (haut, bas, gauche,
+     * droite) aux valeurs distinctes, de 1 à {@code maxCageSize} cases, toutes les cases étant
+     * couvertes. Les sommes sont celles de {@code solution}.
+     */
+    public static KillerConstraint fromSolution(int box, int[] solution, int maxCageSize, SplitMix64 rng) {
+        int size = box * box;
+        int cells = size * size;
+        int[] cageOf = new int[cells];
+        Arrays.fill(cageOf, -1);
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            order[i] = i;
+        }
+        rng.shuffle(order, 0, cells);
+        int[] members = new int[maxCageSize];
+        int[] frontier = new int[4 * maxCageSize];
+        int[] sums = new int[cells];
+        int cages = 0;
+        for (int seed : order) {
+            if (cageOf[seed] >= 0) {
+                continue;
+            }
+            int target = 1 + rng.nextInt(maxCageSize);
+            int n = 0, digits = 0;
+            members[n++] = seed;
+            cageOf[seed] = cages;
+            digits |= 1 << (solution[seed] - 1);
+            while (n < target) {
+                int f = 0;
+                for (int i = 0; i < n; i++) {
+                    int l = members[i] / size, c = members[i] % size;
+                    f = addNeighbour(l - 1, c, size, solution, cageOf, digits, frontier, f);
+                    f = addNeighbour(l + 1, c, size, solution, cageOf, digits, frontier, f);
+                    f = addNeighbour(l, c - 1, size, solution, cageOf, digits, frontier, f);
+                    f = addNeighbour(l, c + 1, size, solution, cageOf, digits, frontier, f);
+                }
+                if (f == 0) {
+                    break;
+                }
+                int next = frontier[rng.nextInt(f)];
+                members[n++] = next;
+                cageOf[next] = cages;
+                digits |= 1 << (solution[next] - 1);
+            }
+            for (int i = 0; i < n; i++) {
+                sums[cages] += solution[members[i]];
+            }
+            cages++;
+        }
+        return new KillerConstraint(box, cageOf, Arrays.copyOf(sums, cages));
+    }
+
+    private static int addNeighbour(int l, int c, int size, int[] solution, int[] cageOf, int digits,
+                                    int[] frontier, int f) {
+        if (l < 0 || l >= size || c < 0 || c >= size) {
+            return f;
+        }
+        int cell = l * size + c;
+        if (cageOf[cell] < 0 && (digits & 1 << (solution[cell] - 1)) == 0) {
+            frontier[f++] = cell;
+        }
+        return f;
+    }
+
+    public int getCageCount() {
+        return sums.length;
+    }
+
+    /** Cage de la case, -1 si elle n'est dans aucune. */
+    public int cageOf(int cell) {
+        return cageOf[cell];
+    }
+
+    public int getSum(int cage) {
+        return sums[cage];
+    }
+
+    @Override
+    public boolean restrictsCandidates() {
+        return true;
+    }
+
+    @Override
+    public int allowed(int cell, int[] cells) {
+        int cage = cageOf[cell];
+        return cage < 0 ? -1 : allowed[cage];
+    }
+
+    @Override
+    public void placed(int cell, int val) {
+        int cage = cageOf[cell];
+        if (cage >= 0) {
+            used[cage] |= 1 << (val - 1);
+            update(cage);
+        }
+    }
+
+    @Override
+    public void removed(int cell, int val) {
+        int cage = cageOf[cell];
+        if (cage >= 0) {
+            used[cage] &= ~(1 << (val - 1));
+            update(cage);
+        }
+    }
+
+    private void update(int cage) {
+        int u = used[cage], mask = 0;
+        for (int combo : combos[cage]) {
+            if ((combo & u) == u) {
+                mask |= combo;
+            }
+        }
+        allowed[cage] = mask & ~u;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(used, 0);
+        for (int cage = 0; cage < sums.length; cage++) {
+            update(cage);
+        }
+    }
+
+    @Override
+    public SudokuConstraint copy() {
+        return new KillerConstraint(box, cageOf, sums, combos);
+    }
+}
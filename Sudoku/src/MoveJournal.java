@@ -0,0 +1,335 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Journal des coups d'une partie, écrit sur disque en ajout seul, avec annulation et
+ * rétablissement en temps constant.
+ * <p>
+ * Le fichier commence par un en-tête de {@link #HEADER_SIZE} octets (signature, version, taille
+ * de bloc, taille de la grille codée) suivi de la grille au format de {@link PuzzleBank}, puis
+ * d'une suite d'entiers de 32 bits. Un coup tient dans un seul entier : case sur 10 bits,
+ * ancienne et nouvelle valeur sur 5 bits chacune, et secondes de jeu écoulées depuis l'entrée
+ * précédente sur 12 bits (plafonnées à {@link #MAX_DELTA}). Une annulation ou un
+ * rétablissement ajoute un entier marqueur, et toutes les {@link #SNAPSHOT_EVERY} entrées un
+ * instantané (marqueur, temps de jeu, position dans l'historique, puis un octet par case)
+ * fixe l'état de la grille. Rien n'est jamais réécrit : un arrêt brutal perd au plus l'entrée
+ * en cours d'écriture, ignorée à la reprise.
+ * <p>
+ * {@link #resume} lit le fichier d'un bloc. L'historique des coups est reconstruit en entier,
+ * pour pouvoir encore annuler après la reprise, mais la grille repart du dernier instantané
+ * et seules les entrées qui le suivent sont rejouées. Non thread-safe.
+ */
+public final class MoveJournal implements AutoCloseable {
+    public static final int MAX_DELTA = (1 << 12) - 1;
+    /** Entrées entre deux instantanés. */
+    public static final int SNAPSHOT_EVERY = 256;
+    private static final int HEADER_SIZE = 16;
+    /** "SDKJ" */
+    private static final int MAGIC = 0x53444B4A;
+    private static final int VERSION = 1;
+    /** Numéros de case réservés aux marqueurs (une grille a au plus 625 cases). */
+    private static final int UNDO = 1023, REDO = 1022, SNAPSHOT = 1021;
+
+    private final FileChannel channel;
+    private final Puzzle puzzle;
+    private final int[] values;
+    /** Coups joués ; ceux d'indice {@code >= cursor} ont été annulés et peuvent être rétablis. */
+    private int[] history = new int[256];
+    private int length;
+    private int cursor;
+    private int elapsed;
+    private int sinceSnapshot;
+    private final ByteBuffer entry = ByteBuffer.allocate(4);
+
+    private MoveJournal(FileChannel channel, Puzzle puzzle) {
+        this.channel = channel;
+        this.puzzle = puzzle;
+        // Copie : les coups ne doivent pas s'écrire dans les indices de la grille
+        this.values = puzzle.getGivens().clone();
+    }
+
+    /** Nouveau journal pour {@code puzzle} ; un fichier existant est remplacé. */
+    public static MoveJournal create(Path path, Puzzle puzzle) throws IOException {
+        int box = puzzle.getBoxSize();
+        int recordSize = PuzzleBank.recordSize(box);
+        byte[] record = new byte[recordSize];
+        PuzzleBank.encode(puzzle, record, 0);
+        ByteBuffer head = ByteBuffer.allocate(align(HEADER_SIZE + recordSize));
+        head.putInt(MAGIC).putInt(VERSION).putInt(box).putInt(recordSize).put(record).rewind();
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (head.hasRemaining()) {
+                channel.write(head);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new MoveJournal(channel, puzzle);
+    }
+
+    /** Rouvre un journal et reprend la partie là où elle s'était arrêtée. */
+    public static MoveJournal resume(Path path) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buf.remaining() < HEADER_SIZE || buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("Pas un journal de partie : " + path);
+        }
+        int box = buf.getInt(8);
+        int recordSize = buf.getInt(12);
+        if (box < SudokuGeometry.MIN_BOX || box > SudokuGeometry.MAX_BOX || recordSize != PuzzleBank.recordSize(box)
+                || buf.remaining() < align(HEADER_SIZE + recordSize)) {
+            throw new IOException("En-tête de journal invalide : " + path);
+        }
+        Puzzle puzzle = PuzzleBank.decode(buf, HEADER_SIZE, box);
+        int start = align(HEADER_SIZE + recordSize);
+        int cells = puzzle.getGivens().length;
+        int snapshotSize = 12 + align(cells);
+
+        // Première passe : fin des entrées complètes et dernier instantané
+        int end = start, lastSnapshot = -1;
+        while (end + 4 <= buf.limit()) {
+            int e = buf.getInt(end);
+            int size = cellOf(e) == SNAPSHOT ? snapshotSize : 4;
+            if (end + size > buf.limit()) {
+                break;
+            }
+            if (cellOf(e) == SNAPSHOT) {
+                lastSnapshot = end;
+            }
+            end += size;
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+        MoveJournal journal = new MoveJournal(channel, puzzle);
+        try {
+            channel.truncate(end);
+            channel.position(end);
+            journal.replay(buf, start, end, lastSnapshot, snapshotSize);
+            journal.checkGivens(path);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Seconde passe : l'historique suit toutes les entrées, la grille et le temps de jeu
+     * seulement celles qui suivent le dernier instantané.
+     */
+    private void replay(ByteBuffer buf, int start, int end, int lastSnapshot, int snapshotSize) {
+        for (int pos = start; pos < end; ) {
+            int e = buf.getInt(pos);
+            boolean live = pos > lastSnapshot;
+            switch (cellOf(e)) {
+                case SNAPSHOT:
+                    if (pos == lastSnapshot) {
+                        elapsed = buf.getInt(pos + 4);
+                        int at = buf.getInt(pos + 8);
+                        if (at != cursor) {
+                            throw new IllegalStateException("Instantané incohérent avec l'historique");
+                        }
+                        for (int cell = 0; cell < values.length; cell++) {
+                            values[cell] = buf.get(pos + 12 + cell);
+                        }
+                    }
+                    sinceSnapshot = 0;
+                    pos += snapshotSize;
+                    continue;
+                case UNDO:
+                    if (cursor > 0) {
+                        int move = history[--cursor];
+                        if (live) {
+                            values[cellOf(move)] = oldValue(move);
+                        }
+                    }
+                    break;
+                case REDO:
+                    if (cursor < length) {
+                        int move = history[cursor++];
+                        if (live) {
+                            values[cellOf(move)] = newValue(move);
+                        }
+                    }
+                    break;
+                default:
+                    push(e);
+                    if (live) {
+                        values[cellOf(e)] = newValue(e);
+                    }
+            }
+            if (live) {
+                elapsed += delta(e);
+            }
+            sinceSnapshot++;
+            pos += 4;
+        }
+    }
+
+    /** Les indices de la grille doivent avoir survécu à la relecture, sans case ajoutée ni changée. */
+    private void checkGivens(Path path) throws IOException {
+        int[] givens = puzzle.getGivens();
+        for (int cell = 0; cell < givens.length; cell++) {
+            if (givens[cell] != 0 && values[cell] != givens[cell]) {
+                throw new IOException("Journal incohérent (indice modifié, case " + cell + ") : " + path);
+            }
+        }
+    }
+
+    /** Coup codé sur un entier. */
+    public static int pack(int cell, int oldValue, int newValue, int delta) {
+        return cell << 22 | oldValue << 17 | newValue << 12 | Math.min(delta, MAX_DELTA);
+    }
+
+    public static int cellOf(int move) {
+        return move >>> 22;
+    }
+
+    public static int oldValue(int move) {
+        return move >>> 17 & 31;
+    }
+
+    public static int newValue(int move) {
+        return move >>> 12 & 31;
+    }
+
+    public static int delta(int move) {
+        return move & MAX_DELTA;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /** Grille actuelle (indices compris), à ne pas modifier. */
+    public int[] getValues() {
+        return values;
+    }
+
+    /** Secondes de jeu à la dernière entrée. */
+    public int getElapsedSeconds() {
+        return elapsed;
+    }
+
+    public int getMoveCount() {
+        return cursor;
+    }
+
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public boolean canRedo() {
+        return cursor < length;
+    }
+
+    /**
+     * Enregistre un coup joué à {@code now} secondes de jeu ; les coups annulés ne peuvent plus
+     * être rétablis.
+     */
+    public void record(int cell, int oldValue, int newValue, int now) throws IOException {
+        int move = pack(cell, oldValue, newValue, tick(now));
+        write(move);
+        push(move);
+        values[cell] = newValue;
+        afterEntry();
+    }
+
+    /** Annule le dernier coup ; renvoie ce coup (la case reprend son ancienne valeur), -1 s'il n'y en a pas. */
+    public int undo(int now) throws IOException {
+        if (cursor == 0) {
+            return -1;
+        }
+        write(pack(UNDO, 0, 0, tick(now)));
+        int move = history[--cursor];
+        values[cellOf(move)] = oldValue(move);
+        afterEntry();
+        return move;
+    }
+
+    /** Rétablit le dernier coup annulé ; renvoie ce coup (la case reprend sa nouvelle valeur), -1 s'il n'y en a pas. */
+    public int redo(int now) throws IOException {
+        if (cursor == length) {
+            return -1;
+        }
+        write(pack(REDO, 0, 0, tick(now)));
+        int move = history[cursor++];
+        values[cellOf(move)] = newValue(move);
+        afterEntry();
+        return move;
+    }
+
+    /**
+     * Ajoute un coup à l'historique. Un effacement suivi, dans la même seconde, d'une saisie dans
+     * la même case (remplacement du texte d'une case) ne fait qu'un coup, annulé d'une seule fois.
+     */
+    private void push(int move) {
+        if (cursor > 0 && cursor == length && delta(move) == 0) {
+            int last = history[cursor - 1];
+            if (cellOf(last) == cellOf(move) && newValue(last) == 0 && oldValue(move) == 0) {
+                if (oldValue(last) == newValue(move)) {
+                    length = --cursor;
+                } else {
+                    history[cursor - 1] = pack(cellOf(last), oldValue(last), newValue(move), delta(last));
+                }
+                return;
+            }
+        }
+        if (cursor == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[cursor++] = move;
+        length = cursor;
+    }
+
+    /** Secondes écoulées depuis l'entrée précédente, comptées comme à la relecture. */
+    private int tick(int now) {
+        int delta = Math.min(Math.max(0, now - elapsed), MAX_DELTA);
+        elapsed += delta;
+        return delta;
+    }
+
+    private void write(int e) throws IOException {
+        entry.clear();
+        entry.putInt(e).flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+    }
+
+    private void afterEntry() throws IOException {
+        if (++sinceSnapshot >= SNAPSHOT_EVERY) {
+            snapshot();
+        }
+    }
+
+    /** Ajoute un instantané de la grille. */
+    public void snapshot() throws IOException {
+        ByteBuffer snap = ByteBuffer.allocate(12 + align(values.length));
+        snap.putInt(pack(SNAPSHOT, 0, 0, 0)).putInt(elapsed).putInt(cursor);
+        for (int v : values) {
+            snap.put((byte) v);
+        }
+        snap.rewind();
+        while (snap.hasRemaining()) {
+            channel.write(snap);
+        }
+        sinceSnapshot = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Comptage exhaustif des solutions d'une grille (4x4 à 25x25) sur tous les cœurs, par
+ * recherche en profondeur découpée en tâches {@link ForkJoinPool}.
+ * <p>
+ * Chaque tâche part d'une copie de la grille et cherche sur son propre {@link SudokuBoard}, en
+ * branchant sur la case que choisit {@link SudokuBoard#chooseBranch()}. Tant qu'elle est à
+ * moins de {@link #MAX_SPLIT_DEPTH} niveaux de la racine et que la file de son thread est
+ * presque vide, une tâche confie ses branches à de nouvelles tâches au lieu de les explorer
+ * elle-même : les threads inoccupés les volent, et le découpage suit la forme réelle de l'arbre
+ * plutôt qu'une profondeur fixe. Les compteurs partagés ne sont mis à jour que par
+ * paquets, sans contention entre les threads.
+ * <p>
+ * La recherche s'arrête sur {@link #cancel()} ou dès que {@code limit} solutions sont trouvées
+ * (2 suffit pour prouver l'unicité). La progression transmise à l'écouteur est la part de
+ * l'arbre déjà couverte, chaque branche valant une part égale de son nœud parent : une
+ * estimation, exacte seulement à la fin. Un compteur ne mène qu'une recherche à la fois.
+ */
+public final class ParallelSolutionCounter {
+    /** Profondeur au-delà de laquelle une tâche ne se découpe plus. */
+    private static final int MAX_SPLIT_DEPTH = 24;
+    /** Une tâche se découpe tant que son thread a au plus ce nombre de tâches d'avance. */
+    private static final int SURPLUS = 2;
+    /** Solutions et nœuds terminés accumulés localement avant report dans les compteurs partagés. */
+    private static final int FLUSH_EVERY = 4096;
+
+    public interface ProgressListener {
+        /**
+         * Appelé périodiquement sur le thread qui a lancé {@link #count}.
+         *
+         * @param solutions solutions trouvées jusqu'ici
+         * @param explored  part estimée de l'arbre déjà couverte, entre 0 et 1
+         */
+        void onProgress(long solutions, double explored);
+    }
+
+    public static final class Result {
+        private final long solutions;
+        private final boolean complete;
+        private final boolean cancelled;
+
+        Result(long solutions, boolean complete, boolean cancelled) {
+            this.solutions = solutions;
+            this.complete = complete;
+            this.cancelled = cancelled;
+        }
+
+        /** Solutions trouvées ; le total exact seulement si {@link #isComplete()}. */
+        public long getSolutions() {
+            return solutions;
+        }
+
+        /** Vrai si l'arbre a été entièrement parcouru. */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return solutions + (complete ? " solution(s)" : cancelled ? " solution(s) (interrompu)" : "+ solutions");
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    private final LongAdder found = new LongAdder();
+    private final DoubleAdder explored = new DoubleAdder();
+    private volatile boolean cancelled;
+    private volatile boolean limitReached;
+    private long limit;
+    private int box;
+
+    public ParallelSolutionCounter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelSolutionCounter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Interrompt la recherche en cours ; {@link #count} rend alors un résultat partiel. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Result count(int[] grid, long limit) throws InterruptedException {
+        return count(grid, limit, null, 0);
+    }
+
+    /**
+     * Compte les solutions de {@code grid} (à plat, 0 = vide) jusqu'à {@code limit}
+     * ({@link Long#MAX_VALUE} pour un comptage exhaustif), en appelant {@code listener} toutes
+     * les {@code intervalMillis} millisecondes.
+     */
+    public Result count(int[] grid, long limit, ProgressListener listener, long intervalMillis)
+            throws InterruptedException {
+        box = SudokuGeometry.forCells(grid.length).box;
+        this.limit = limit;
+        found.reset();
+        explored.reset();
+        cancelled = false;
+        limitReached = false;
+
+        SudokuBoard check = new SudokuBoard(box);
+        for (int cell = 0; cell < grid.length; cell++) {
+            if (grid[cell] != 0) {
+                if ((check.candidates(cell) & (1 << (grid[cell] - 1))) == 0) {
+                    return new Result(0, true, false);
+                }
+                check.place(cell, grid[cell]);
+            }
+        }
+
+        ForkJoinTask<Void> root = pool.submit(new Search(grid.clone(), 0, 1.0));
+        try {
+            while (true) {
+                try {
+                    if (listener == null) {
+                        root.get();
+                    } else {
+                        root.get(Math.max(1, intervalMillis), TimeUnit.MILLISECONDS);
+                    }
+                    break;
+                } catch (TimeoutException e) {
+                    listener.onProgress(found.sum(), explored.sum());
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Échec du comptage", e.getCause());
+        } catch (InterruptedException e) {
+            cancelled = true;
+            throw e;
+        }
+        long total = found.sum();
+        if (listener != null) {
+            listener.onProgress(total, cancelled || limitReached ? explored.sum() : 1.0);
+        }
+        return new Result(Math.min(total, limit), !cancelled && !limitReached, cancelled);
+    }
+
+    private final class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] grid;
+        private final int depth;
+        private final double weight;
+        private long localFound;
+        private double localExplored;
+        private int pending;
+
+        Search(int[] grid, int depth, double weight) {
+            this.grid = grid;
+            this.depth = depth;
+            this.weight = weight;
+        }
+
+        @Override
+        protected void compute() {
+            // Un plateau par tâche : les tâches filles peuvent s'exécuter sur ce même thread
+            // pendant invokeAll, elles ne doivent pas toucher à l'état de celle-ci.
+            SudokuBoard board = new SudokuBoard(box);
+            board.load(grid);
+            search(board, depth, weight);
+            flush();
+        }
+
+        private void search(SudokuBoard board, int level, double w) {
+            if (cancelled || limitReached) {
+                return;
+            }
+            int cell = board.chooseBranch();
+            if (cell == SudokuBoard.FULL) {
+                localFound++;
+                leaf(w);
+                return;
+            }
+            if (cell == SudokuBoard.DEAD_END) {
+                leaf(w);
+                return;
+            }
+            int mask = board.getBranchMask();
+            int branches = Integer.bitCount(mask);
+            double share = w / branches;
+            if (branches > 1 && level < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() <= SURPLUS) {
+                List<Search> tasks = new ArrayList<>(branches);
+                for (int m = mask; m != 0; m &= m - 1) {
+                    board.place(cell, Integer.numberOfTrailingZeros(m) + 1);
+                    tasks.add(new Search(board.toArray(), level + 1, share));
+                    board.remove(cell);
+                }
+                flush();
+                invokeAll(tasks);
+                return;
+            }
+            for (int m = mask; m != 0 && !cancelled && !limitReached; m &= m - 1) {
+                board.place(cell, Integer.numberOfTrailingZeros(m) + 1);
+                search(board, level + 1, share);
+                board.remove(cell);
+            }
+        }
+
+        private void leaf(double w) {
+            localExplored += w;
+            if (++pending >= (limit == Long.MAX_VALUE ? FLUSH_EVERY : 1)) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (localFound != 0) {
+                found.add(localFound);
+                localFound = 0;
+                if (found.sum() >= limit) {
+                    limitReached = true;
+                }
+            }
+            if (localExplored != 0) {
+                explored.add(localExplored);
+                localExplored = 0;
+            }
+            pending = 0;
+        }
+    }
+}
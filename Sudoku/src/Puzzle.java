@@ -0,0 +1,62 @@
+/**
+ * Grille à résoudre et sa solution, stockées à plat ({@code l * size + c}, 0 = case vide),
+ * avec sa difficulté quand elle a été notée.
+ */
+public final class Puzzle {
+    private final int box;
+    private final int[] givens;
+    private final int[] solution;
+    private final Difficulty difficulty;
+
+    public Puzzle(int box, int[] givens, int[] solution) {
+        this(box, givens, solution, null);
+    }
+
+    public Puzzle(int box, int[] givens, int[] solution, Difficulty difficulty) {
+        this.box = box;
+        this.givens = givens;
+        this.solution = solution;
+        this.difficulty = difficulty;
+    }
+
+    public int getBoxSize() {
+        return box;
+    }
+
+    public int getSize() {
+        return box * box;
+    }
+
+    public int[] getGivens() {
+        return givens;
+    }
+
+    public int[] getSolution() {
+        return solution;
+    }
+
+    /** Difficulté notée par {@link DifficultyGrader}, {@code null} si la grille n'a pas été notée. */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public Puzzle withDifficulty(Difficulty difficulty) {
+        return new Puzzle(box, givens, solution, difficulty);
+    }
+
+    public int getClueCount() {
+        int clues = 0;
+        for (int v : givens) {
+            if (v != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+
+    /** Grille sur une ligne, au format de {@link SudokuBoard#toLine}. */
+    @Override
+    public String toString() {
+        return SudokuBoard.toLine(givens);
+    }
+}
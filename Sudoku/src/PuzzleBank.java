@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Banque de grilles sur disque, lue par projection mémoire ({@link FileChannel#map}).
+ * <p>
+ * Le fichier commence par un en-tête de {@link #HEADER_SIZE} octets (signature, version,
+ * taille de bloc, taille d'un enregistrement, nombre de grilles) suivi d'enregistrements de
+ * taille fixe : la grille n° {@code k} est à l'octet {@code HEADER_SIZE + k * recordSize}, sans
+ * table d'index à charger. Un enregistrement contient :
+ * <ul>
+ *   <li>1 octet de difficulté (ordinal de {@link Difficulty}, -1 si non notée) ;</li>
+ *   <li>la solution, {@code valeur - 1} sur {@link #bitsPerValue} bits par case (4 bits en 9x9
+ *       et 16x16, 5 en 25x25), bit de poids faible en premier ;</li>
+ *   <li>un bit par case, à 1 si la case est un indice.</li>
+ * </ul>
+ * Une grille 9x9 et sa solution tiennent ainsi en 53 octets. Le fichier n'est jamais chargé en
+ * entier : seules les pages lues sont amenées en mémoire par le système. Les lectures sont
+ * absolues et peuvent se faire depuis plusieurs threads.
+ */
+public final class PuzzleBank {
+    public static final int HEADER_SIZE = 32;
+    /** "SDKB" */
+    private static final int MAGIC = 0x53444B42;
+    private static final int VERSION = 1;
+    private static final byte NOT_GRADED = -1;
+
+    private final int box;
+    private final int cells;
+    private final int bits;
+    private final int recordSize;
+    private final long count;
+    private final long recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    private PuzzleBank(int box, long count, MappedByteBuffer[] segments, long recordsPerSegment) {
+        this.box = box;
+        this.cells = SudokuGeometry.of(box).cells;
+        this.bits = bitsPerValue(box);
+        this.recordSize = recordSize(box);
+        this.count = count;
+        this.segments = segments;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /** Bits nécessaires pour coder {@code valeur - 1} dans une grille à blocs de {@code box x box}. */
+    public static int bitsPerValue(int box) {
+        return 32 - Integer.numberOfLeadingZeros(box * box - 1);
+    }
+
+    public static int recordSize(int box) {
+        int cells = SudokuGeometry.of(box).cells;
+        return 1 + (cells * bitsPerValue(box) + 7) / 8 + (cells + 7) / 8;
+    }
+
+    /**
+     * Ouvre une banque en lecture. Les projections restent valides après la fermeture du
+     * canal ; elles sont libérées par le ramasse-miettes quand la banque n'est plus référencée.
+     * Un fichier de plus de 2 Go est projeté en plusieurs segments.
+     */
+    public static PuzzleBank open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // lecture de l'en-tête complet
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Pas une banque de grilles : " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de banque non gérée : " + version);
+            }
+            int box = header.getInt();
+            int recordSize = header.getInt();
+            long count = header.getLong();
+            if (box < SudokuGeometry.MIN_BOX || box > SudokuGeometry.MAX_BOX || recordSize != recordSize(box)) {
+                throw new IOException("En-tête de banque invalide : " + path);
+            }
+            if (count < 0 || channel.size() < HEADER_SIZE + count * recordSize) {
+                throw new IOException("Banque tronquée : " + path);
+            }
+
+            long perSegment = Integer.MAX_VALUE / recordSize;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((count + perSegment - 1) / perSegment)];
+            for (int s = 0; s < segments.length; s++) {
+                long first = s * perSegment;
+                long records = Math.min(perSegment, count - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * recordSize, records * recordSize);
+            }
+            return new PuzzleBank(box, count, segments, perSegment);
+        }
+    }
+
+    public int getBoxSize() {
+        return box;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /** Difficulté enregistrée pour la grille {@code k}, {@code null} si elle n'a pas été notée. */
+    public Difficulty getDifficulty(long k) {
+        byte d = segment(k).get(offset(k));
+        return d == NOT_GRADED ? null : Difficulty.values()[d];
+    }
+
+    /** Décode la grille {@code k} dans des tableaux fournis par l'appelant (sans allocation). */
+    public void read(long k, int[] givens, int[] solution) {
+        decode(segment(k), offset(k), cells, bits, givens, solution);
+    }
+
+    private static void decode(ByteBuffer buf, int off, int cells, int bits, int[] givens, int[] solution) {
+        int sol = off + 1;
+        int mask = sol + (cells * bits + 7) / 8;
+        int valueMask = (1 << bits) - 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int bit = cell * bits;
+            int p = sol + (bit >>> 3);
+            // Une valeur fait au plus 5 bits, elle tient dans deux octets (le second peut
+            // appartenir au masque des indices, qui suit toujours la solution).
+            int word = (buf.get(p) & 0xFF) | (buf.get(p + 1) & 0xFF) << 8;
+            int v = ((word >>> (bit & 7)) & valueMask) + 1;
+            solution[cell] = v;
+            givens[cell] = (buf.get(mask + (cell >>> 3)) >>> (cell & 7) & 1) != 0 ? v : 0;
+        }
+    }
+
+    /** Inverse de {@link #encode} : grille codée à partir de {@code off} dans {@code buf}. */
+    static Puzzle decode(ByteBuffer buf, int off, int box) {
+        int cells = SudokuGeometry.of(box).cells;
+        int[] givens = new int[cells];
+        int[] solution = new int[cells];
+        decode(buf, off, cells, bitsPerValue(box), givens, solution);
+        byte d = buf.get(off);
+        return new Puzzle(box, givens, solution, d == NOT_GRADED ? null : Difficulty.values()[d]);
+    }
+
+    public Puzzle get(long k) {
+        int[] givens = new int[cells];
+        int[] solution = new int[cells];
+        read(k, givens, solution);
+        return new Puzzle(box, givens, solution, getDifficulty(k));
+    }
+
+    private ByteBuffer segment(long k) {
+        if (k < 0 || k >= count) {
+            throw new IndexOutOfBoundsException("Grille " + k + " hors de la banque (" + count + " grilles)");
+        }
+        return segments[(int) (k / recordsPerSegment)];
+    }
+
+    private int offset(long k) {
+        return (int) (k % recordsPerSegment) * recordSize;
+    }
+
+    /** Code {@code puzzle} dans {@code out} à partir de {@code off} ({@link #recordSize} octets). */
+    static void encode(Puzzle puzzle, byte[] out, int off) {
+        int box = puzzle.getBoxSize();
+        int cells = SudokuGeometry.of(box).cells;
+        int bits = bitsPerValue(box);
+        int size = recordSize(box);
+        int[] givens = puzzle.getGivens();
+        int[] solution = puzzle.getSolution();
+        Arrays.fill(out, off, off + size, (byte) 0);
+
+        out[off] = puzzle.getDifficulty() == null ? NOT_GRADED : (byte) puzzle.getDifficulty().ordinal();
+        int sol = off + 1;
+        int mask = sol + (cells * bits + 7) / 8;
+        for (int cell = 0; cell < cells; cell++) {
+            int bit = cell * bits;
+            int word = (solution[cell] - 1) << (bit & 7);
+            int p = sol + (bit >>> 3);
+            out[p] |= (byte) word;
+            if ((word >>> 8) != 0) {
+                out[p + 1] |= (byte) (word >>> 8);
+            }
+            if (givens[cell] != 0) {
+                out[mask + (cell >>> 3)] |= (byte) (1 << (cell & 7));
+            }
+        }
+    }
+
+    /**
+     * Écrit une banque grille par grille ; le nombre de grilles de l'en-tête est fixé à la
+     * fermeture. Toutes les grilles doivent avoir la taille de bloc donnée à la création.
+     */
+    public static final class Writer implements AutoCloseable {
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final int box;
+        private final int recordSize;
+        private final byte[] record;
+        private final ByteBuffer buffer;
+        private long count;
+
+        public Writer(Path path, int box) throws IOException {
+            this.box = box;
+            this.recordSize = recordSize(box);
+            this.record = new byte[recordSize];
+            this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, recordSize)).order(ByteOrder.LITTLE_ENDIAN);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.put(header(0));
+        }
+
+        private ByteBuffer header(long count) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(box).putInt(recordSize).putLong(count);
+            return header.rewind();
+        }
+
+        public void append(Puzzle puzzle) throws IOException {
+            if (puzzle.getBoxSize() != box) {
+                throw new IllegalArgumentException("Taille de bloc " + puzzle.getBoxSize() + " au lieu de " + box);
+            }
+            encode(puzzle, record, 0);
+            if (buffer.remaining() < recordSize) {
+                flush();
+            }
+            buffer.put(record);
+            count++;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                ByteBuffer header = header(count);
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
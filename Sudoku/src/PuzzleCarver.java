@@ -0,0 +1,159 @@
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Retire les indices d'une grille complète un par un en ne gardant que les retraits qui
+ * laissent une solution unique (vérifiée par {@link DlxSolver} jusqu'en 9x9, par la recherche
+ * de {@link SudokuBoard} au-delà).
+ * <p>
+ * Les cases sont retirées par orbites de symétrie, de sorte que la grille obtenue respecte
+ * le motif demandé. Le carving s'arrête dès que le nombre d'indices cible est atteint ou
+ * qu'aucune orbite ne peut plus être retirée. Pour une variante ({@link SudokuConstraint}),
+ * l'unicité est vérifiée par la recherche du plateau, qui applique les règles de la variante.
+ */
+public final class PuzzleCarver {
+    public enum Symmetry {
+        NONE, ROTATIONAL, HORIZONTAL, VERTICAL, DIAGONAL;
+
+        /** Cases associées à {@code cell} par la symétrie (la case elle-même incluse). */
+        int orbit(int cell, int n, int[] out) {
+            int l = cell / n, c = cell % n;
+            int other;
+            switch (this) {
+                case ROTATIONAL: other = (n - 1 - l) * n + (n - 1 - c); break;
+                case HORIZONTAL: other = (n - 1 - l) * n + c; break;
+                case VERTICAL: other = l * n + (n - 1 - c); break;
+                case DIAGONAL: other = c * n + l; break;
+                default: other = cell;
+            }
+            out[0] = cell;
+            if (other == cell) {
+                return 1;
+            }
+            out[1] = other;
+            return 2;
+        }
+    }
+
+    /**
+     * Budget de la réfutation d'une valeur en 16x16 et 25x25. Au-delà, la valeur est tenue pour
+     * possible et la case est gardée : la grille reste unique, elle a seulement un indice de plus.
+     */
+    private static final long REFUTATION_NODES = 2_000;
+
+    private final SudokuGeometry geo;
+    private final DlxSolver solver;
+    private final SudokuBoard board;
+    /** Vrai si {@link DlxSolver} peut vérifier l'unicité : grille classique jusqu'en 9x9. */
+    private final boolean dlx;
+    private final int[] order;
+    private final int[] orbit = new int[2];
+
+    public PuzzleCarver() {
+        this(3);
+    }
+
+    public PuzzleCarver(int box) {
+        this(box, new SudokuConstraint[0]);
+    }
+
+    /** Carving d'une variante ; les règles appartiennent au plateau du carver. */
+    public PuzzleCarver(int box, SudokuConstraint... rules) {
+        board = new SudokuBoard(box, rules);
+        geo = board.getGeometry();
+        dlx = box <= 3 && rules.length == 0;
+        solver = dlx ? new DlxSolver(box) : null;
+        order = new int[geo.cells];
+    }
+
+    /**
+     * Creuse une copie de {@code solution} (grille complète à plat) jusqu'à {@code targetClues} indices au plus.
+     * S'arrête par une {@link CancellationException} si le thread est interrompu.
+     *
+     * @return la grille à résoudre, 0 pour les cases vides
+     */
+    public int[] carve(int[] solution, int targetClues, Symmetry symmetry, SplitMix64 rng) {
+        int[] puzzle = solution.clone();
+        int clues = geo.cells;
+        board.load(puzzle);
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        rng.shuffle(order, 0, order.length);
+
+        for (int k = 0; k < order.length && clues > targetClues; k++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Carving interrompu");
+            }
+            int cell = order[k];
+            if (puzzle[cell] == 0) {
+                continue;
+            }
+            int n = symmetry.orbit(cell, geo.size, orbit);
+            if (clues - n < targetClues) {
+                continue;
+            }
+            int first = puzzle[orbit[0]];
+            int second = n > 1 ? puzzle[orbit[1]] : 0;
+            for (int i = 0; i < n; i++) {
+                puzzle[orbit[i]] = 0;
+                board.remove(orbit[i]);
+            }
+            if (isStillUnique(puzzle, solution, n)) {
+                clues -= n;
+            } else {
+                puzzle[orbit[0]] = first;
+                board.place(orbit[0], first);
+                if (n > 1) {
+                    puzzle[orbit[1]] = second;
+                    board.place(orbit[1], second);
+                }
+            }
+        }
+        return puzzle;
+    }
+
+    /**
+     * La grille avant retrait n'avait qu'une solution : une autre solution après retrait diffère
+     * forcément sur une case de l'orbite retirée. Il suffit donc de vérifier qu'aucune autre
+     * valeur de ces cases ne mène à une solution. Les valeurs déjà exclues par les masques du
+     * plateau sont écartées sans appeler le solveur ; en début de carving, c'est presque toutes.
+     */
+    private boolean isStillUnique(int[] puzzle, int[] solution, int n) {
+        for (int k = 0; k < n; k++) {
+            int cell = orbit[k];
+            int others = board.candidates(cell) & ~(1 << (solution[cell] - 1));
+            while (others != 0) {
+                int v = Integer.numberOfTrailingZeros(others) + 1;
+                others &= others - 1;
+                if (hasSolution(puzzle, cell, v)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Vrai si la grille admet une solution avec {@code v} en {@code cell}. */
+    private boolean hasSolution(int[] puzzle, int cell, int v) {
+        if (dlx) {
+            puzzle[cell] = v;
+            int found = solver.solve(puzzle, 1, Long.MAX_VALUE);
+            puzzle[cell] = 0;
+            return found > 0;
+        }
+        board.place(cell, v);
+        int found = board.countSolutions(1, geo.box > 3 ? REFUTATION_NODES : Long.MAX_VALUE);
+        board.remove(cell);
+        return found != 0;
+    }
+
+    public int[] carve(int[] solution, int targetClues, Symmetry symmetry, Random rand) {
+        return carve(solution, targetClues, symmetry, new SplitMix64(rand.nextLong()));
+    }
+
+    public int[] carve(int[] solution, int targetClues) {
+        return carve(solution, targetClues, Symmetry.NONE, new Random());
+    }
+}
@@ -0,0 +1,136 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Générateur de charge pour {@link PuzzleServer} : {@code --concurrency} clients en boucle
+ * fermée (chacun envoie sa requête suivante dès qu'il a reçu la réponse) jusqu'à
+ * {@code --requests} requêtes, puis affiche les latences p50, p99 et maximale et le débit.
+ * Les {@code --warmup} premières requêtes ne sont pas comptées. Avec {@code --body}, les
+ * requêtes sont des POST de ce corps.
+ *
+ * <pre>
+ * java PuzzleLoadTest --path "/puzzle?difficulty=facile" --requests 5000 --concurrency 16
+ * java PuzzleLoadTest --path /solve --body 4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......
+ * </pre>
+ */
+public class PuzzleLoadTest {
+    private String url = "http://localhost:8080";
+    private String path = "/puzzle";
+    private String body;
+    private int requests = 1000;
+    private int concurrency = 8;
+    private int warmup = 100;
+
+    private HttpClient client;
+    /** Latence de chaque requête comptée, en nanosecondes. */
+    private long[] latencies;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    public static void main(String[] args) throws InterruptedException {
+        PuzzleLoadTest test = new PuzzleLoadTest();
+        try {
+            test.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage : PuzzleLoadTest [--url http://hôte:port] [--path /chemin?requête] [--body corps]"
+                    + " [--requests N] [--concurrency C] [--warmup W]");
+            System.exit(2);
+        }
+        test.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String opt = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valeur manquante pour " + opt);
+            }
+            String val = args[++i];
+            switch (opt) {
+                case "--url": url = val; break;
+                case "--path": path = val; break;
+                case "--body": body = val; break;
+                case "--requests": requests = Integer.parseInt(val); break;
+                case "--concurrency": concurrency = Integer.parseInt(val); break;
+                case "--warmup": warmup = Integer.parseInt(val); break;
+                default: throw new IllegalArgumentException("Option inconnue : " + opt);
+            }
+        }
+        if (requests < 1 || concurrency < 1 || warmup < 0) {
+            throw new IllegalArgumentException("--requests et --concurrency doivent être positifs, --warmup au moins 0");
+        }
+    }
+
+    private void run() throws InterruptedException {
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        HttpRequest request = request();
+
+        // Échauffement : JIT et réserves du serveur, connexions du client
+        latencies = new long[warmup];
+        next.set(0);
+        runWorkers(request, warmup);
+
+        latencies = new long[requests];
+        next.set(0);
+        errors.set(0);
+        long start = System.nanoTime();
+        runWorkers(request, requests);
+        long wall = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%d requêtes, %d clients, %d erreurs%n", requests, concurrency, errors.get());
+        System.out.printf(Locale.ROOT, "p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                percentile(0.50) / 1e6, percentile(0.99) / 1e6, latencies[requests - 1] / 1e6);
+        System.out.printf(Locale.ROOT, "%.0f requêtes/s%n", requests / (wall / 1e9));
+    }
+
+    private HttpRequest request() {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + path)).timeout(Duration.ofSeconds(60));
+        if (body != null) {
+            builder.POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        return builder.build();
+    }
+
+    private void runWorkers(HttpRequest request, int count) throws InterruptedException {
+        Thread[] workers = new Thread[Math.min(concurrency, Math.max(1, count))];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Thread(() -> work(request, count), "load-" + w);
+            workers[w].start();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+    }
+
+    private void work(HttpRequest request, int count) {
+        for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+            long t0 = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                errors.incrementAndGet();
+            }
+            latencies[i] = System.nanoTime() - t0;
+        }
+    }
+
+    /** Latence sous laquelle tombe la fraction {@code p} des requêtes (rang le plus proche). */
+    private long percentile(double p) {
+        int rank = (int) Math.ceil(p * latencies.length);
+        return latencies[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Multiplie un jeu de grilles vérifiées et notées par leurs transformations
+ * ({@link SudokuTransform}) : la grille n° {@code k} est la variante {@code k / seeds} de la
+ * grille de départ {@code k % seeds}. Chaque variante a la même difficulté que sa grille de
+ * départ et se calcule en une passe sur les cases, sans recherche ni notation.
+ * <p>
+ * Le numéro suffit à retrouver une grille : « grille n° k de la graine s » est reproductible
+ * d'une exécution à l'autre tant que les grilles de départ sont les mêmes. Les lectures
+ * peuvent se faire depuis plusieurs threads.
+ */
+public final class PuzzleMultiplier {
+    private final LongFunction<Puzzle> seeds;
+    private final long seedCount;
+    private final int box;
+    private final ThreadLocal<SudokuTransform> transforms;
+
+    public PuzzleMultiplier(List<Puzzle> seeds) {
+        this(k -> seeds.get((int) k), seeds.size(), seeds.isEmpty() ? 3 : seeds.get(0).getBoxSize());
+        for (Puzzle p : seeds) {
+            if (p.getBoxSize() != box) {
+                throw new IllegalArgumentException("Toutes les grilles de départ doivent avoir la même taille");
+            }
+        }
+    }
+
+    /** Grilles de départ lues dans une banque, sans les charger. */
+    public PuzzleMultiplier(PuzzleBank bank) {
+        this(bank::get, bank.size(), bank.getBoxSize());
+    }
+
+    private PuzzleMultiplier(LongFunction<Puzzle> seeds, long seedCount, int box) {
+        if (seedCount == 0) {
+            throw new IllegalArgumentException("Aucune grille de départ");
+        }
+        this.seeds = seeds;
+        this.seedCount = seedCount;
+        this.box = box;
+        this.transforms = ThreadLocal.withInitial(() -> new SudokuTransform(box));
+    }
+
+    public int getBoxSize() {
+        return box;
+    }
+
+    public long getSeedCount() {
+        return seedCount;
+    }
+
+    /** Nombre de grilles distinctes accessibles, plafonné à {@link Long#MAX_VALUE}. */
+    public long size() {
+        long variants = SudokuTransform.count(box);
+        return variants > Long.MAX_VALUE / seedCount ? Long.MAX_VALUE : variants * seedCount;
+    }
+
+    /** Grille n° {@code k}. */
+    public Puzzle get(long k) {
+        return get(k % seedCount, k / seedCount);
+    }
+
+    /** Variante n° {@code variant} de la grille de départ n° {@code seed}. */
+    public Puzzle get(long seed, long variant) {
+        SudokuTransform t = transforms.get();
+        t.setIndex(variant);
+        return t.apply(seeds.apply(seed));
+    }
+}
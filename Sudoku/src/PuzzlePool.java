@@ -0,0 +1,148 @@
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Réserve de grilles prêtes à jouer, une file bornée par taille de bloc et par difficulté,
+ * remplie en arrière-plan.
+ * <p>
+ * {@link #next} rend tout de suite une grille de la file quand il y en a une ; sinon la grille
+ * est produite par un thread de fond et livrée par le {@link CompletableFuture}. Dans les deux
+ * cas, la file est ensuite complétée en tâche de fond : le thread appelant (typiquement celui
+ * de Swing) ne génère jamais lui-même.
+ * <p>
+ * En 9x9, chaque grille produite est notée par {@link DifficultyGrader} et rangée dans la file
+ * de sa difficulté réelle si elle a de la place, de sorte qu'aucun essai n'est perdu quand la
+ * difficulté obtenue n'est pas celle visée. Les techniques du correcteur n'étant calibrées que
+ * pour le 9x9, les autres tailles sont classées par leur seul nombre d'indices.
+ */
+public final class PuzzlePool {
+    /** Grilles gardées d'avance par taille et par difficulté. */
+    private static final int CAPACITY = 4;
+    /**
+     * Au-delà, la grille est livrée avec la difficulté obtenue plutôt que de chercher encore
+     * (en 9x9, environ une grille sur 25 creusée pour « Moyen » est notée comme telle).
+     */
+    private static final int MAX_ATTEMPTS = 200;
+
+    private static final Difficulty[] LEVELS = Difficulty.values();
+
+    private final BlockingQueue<Puzzle>[][] queues;
+    private final AtomicBoolean[][] refilling;
+    private final ExecutorService workers;
+    private final ThreadLocal<SudokuGenerator[]> generators;
+    private final ThreadLocal<DifficultyGrader> graders = ThreadLocal.withInitial(DifficultyGrader::new);
+
+    public PuzzlePool() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    public PuzzlePool(int threads) {
+        int boxes = SudokuGeometry.MAX_BOX + 1;
+        queues = (BlockingQueue<Puzzle>[][]) new BlockingQueue<?>[boxes][LEVELS.length];
+        refilling = new AtomicBoolean[boxes][LEVELS.length];
+        for (int b = SudokuGeometry.MIN_BOX; b < boxes; b++) {
+            for (int d = 0; d < LEVELS.length; d++) {
+                queues[b][d] = new ArrayBlockingQueue<>(CAPACITY);
+                refilling[b][d] = new AtomicBoolean();
+            }
+        }
+        Random seeds = new Random();
+        generators = ThreadLocal.withInitial(() -> {
+            synchronized (seeds) {
+                SudokuGenerator[] g = new SudokuGenerator[boxes];
+                for (int b = SudokuGeometry.MIN_BOX; b < boxes; b++) {
+                    g[b] = new SudokuGenerator(b, seeds.nextLong());
+                }
+                return g;
+            }
+        });
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "puzzle-pool");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    /** Lance le remplissage de la file {@code box} / {@code difficulty} sans rien attendre. */
+    public void prefill(int box, Difficulty difficulty) {
+        refill(box, difficulty);
+    }
+
+    /**
+     * Prochaine grille de la taille et de la difficulté demandées. Le futur est déjà terminé si
+     * la file en contenait une ; sinon il se termine sur un thread de fond.
+     */
+    public CompletableFuture<Puzzle> next(int box, Difficulty difficulty) {
+        SudokuGeometry.of(box);
+        Puzzle ready = queues[box][difficulty.ordinal()].poll();
+        CompletableFuture<Puzzle> result = ready != null
+                ? CompletableFuture.completedFuture(ready)
+                : CompletableFuture.supplyAsync(() -> produce(box, difficulty), workers);
+        refill(box, difficulty);
+        return result;
+    }
+
+    /** Nombre de grilles prêtes dans la file {@code box} / {@code difficulty}. */
+    public int available(int box, Difficulty difficulty) {
+        return queues[box][difficulty.ordinal()].size();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /** Une seule tâche de remplissage à la fois par file. */
+    private void refill(int box, Difficulty difficulty) {
+        AtomicBoolean busy = refilling[box][difficulty.ordinal()];
+        if (!busy.compareAndSet(false, true)) {
+            return;
+        }
+        workers.execute(() -> {
+            try {
+                BlockingQueue<Puzzle> queue = queues[box][difficulty.ordinal()];
+                while (queue.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted()) {
+                    Puzzle puzzle = produce(box, difficulty);
+                    if (puzzle.getDifficulty() != difficulty) {
+                        // Essais épuisés : la grille va dans la file de sa difficulté réelle
+                        queues[box][puzzle.getDifficulty().ordinal()].offer(puzzle);
+                        break;
+                    }
+                    if (!queue.offer(puzzle)) {
+                        break;
+                    }
+                }
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    /**
+     * Génère jusqu'à obtenir une grille de la difficulté visée ; les grilles d'une autre
+     * difficulté sont gardées dans leur propre file si elle n'est pas pleine. Après
+     * {@link #MAX_ATTEMPTS} essais, rend la dernière grille avec sa difficulté réelle, sans la
+     * ranger nulle part : l'appelant en dispose une seule fois.
+     */
+    private Puzzle produce(int box, Difficulty difficulty) {
+        SudokuGenerator generator = generators.get()[box];
+        if (box != 3) {
+            return generator.generate(difficulty).withDifficulty(difficulty);
+        }
+        for (int attempt = 1; ; attempt++) {
+            Puzzle puzzle = generator.generate(difficulty);
+            Difficulty grade = graders.get().grade(puzzle.getGivens()).getDifficulty();
+            puzzle = puzzle.withDifficulty(grade);
+            if (grade == difficulty || attempt == MAX_ATTEMPTS) {
+                return puzzle;
+            }
+            queues[box][grade.ordinal()].offer(puzzle);
+        }
+    }
+}
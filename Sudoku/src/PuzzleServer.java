@@ -0,0 +1,412 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Service HTTP autour du générateur et des solveurs, sur le serveur embarqué du JDK
+ * ({@code com.sun.net.httpserver}). Les réponses sont en JSON.
+ *
+ * <pre>
+ * GET  /puzzle?difficulty=moyen&amp;box=3[&amp;seed=42]   grille à jouer et sa solution
+ * POST /solve     grille                            unique, multiple, none, invalid ou unknown
+ * POST /validate  grille                            conflits, cases remplies, résolue ou non
+ * POST /hint      grille                            déduction la plus simple applicable
+ * </pre>
+ *
+ * Une grille est envoyée sur une ligne ({@link SudokuBoard#toLine}), brute ou dans un objet
+ * {@code {"grid": "..."}} ; les blancs sont ignorés. Sans graine, {@code /puzzle} puise dans
+ * un {@link PuzzlePool} ; avec une graine, la grille est générée sur place et ne dépend que
+ * de la graine.
+ * <p>
+ * Chaque requête a son thread virtuel quand le JDK en propose (21 et plus) ; sinon, elle
+ * passe par un pool de threads ordinaire. Les objets coûteux à construire (générateurs,
+ * solveurs, moteurs d'indices) ne sont pas liés aux threads, éphémères, mais empruntés à des
+ * réserves par taille de bloc et rendus après usage : une rafale de requêtes n'en crée pas
+ * plus qu'il n'y a de requêtes simultanées.
+ *
+ * <pre>
+ * java PuzzleServer --port 8080
+ * </pre>
+ */
+public final class PuzzleServer {
+    /** Taille maximale d'un corps de requête (une grille 25x25 en JSON tient largement). */
+    private static final int MAX_BODY = 4096;
+    /** Nœuds de recherche au-delà desquels {@code /solve} répond {@code unknown}. */
+    private static final long MAX_NODES = 2_000_000;
+    private static final long GENERATE_TIMEOUT_SECONDS = 30;
+
+    static {
+        // Sans TCP_NODELAY, une réponse envoyée en deux segments attend l'accusé de réception
+        // différé du client : environ 40 ms par requête sur une connexion gardée ouverte.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService requests;
+    /**
+     * Générations à graine fixe, qui ne passent pas par le pool : un thread par cœur au plus,
+     * pour qu'une rafale de grandes grilles n'occupe pas tous les threads de requêtes.
+     */
+    private final ExecutorService seeded = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "puzzle-seeded");
+                t.setDaemon(true);
+                return t;
+            });
+    private final PuzzlePool pool;
+    private final Reserve<SudokuGenerator> generators = new Reserve<>(box -> new SudokuGenerator(box, 0L));
+    private final Reserve<DlxSolver> solvers = new Reserve<>(DlxSolver::new);
+    private final Reserve<BacktrackEngine> engines = new Reserve<>(box -> new BacktrackEngine(new SudokuBoard(box)));
+    private final Reserve<SudokuModel> models = new Reserve<>(SudokuModel::new);
+    private final Reserve<HintEngine> hints = new Reserve<>(HintEngine::new);
+
+    public PuzzleServer(int port, PuzzlePool pool) throws IOException {
+        this.pool = pool;
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        requests = newRequestExecutor();
+        server.setExecutor(requests);
+        server.createContext("/puzzle", e -> handle(e, "GET", () -> puzzle(query(e))));
+        server.createContext("/solve", e -> handle(e, "POST", () -> solve(grid(e))));
+        server.createContext("/validate", e -> handle(e, "POST", () -> validate(grid(e))));
+        server.createContext("/hint", e -> handle(e, "POST", () -> hint(grid(e))));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String opt = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Valeur manquante pour " + opt);
+                }
+                String val = args[++i];
+                switch (opt) {
+                    case "--port": port = Integer.parseInt(val); break;
+                    case "--threads": threads = Integer.parseInt(val); break;
+                    default: throw new IllegalArgumentException("Option inconnue : " + opt);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage : PuzzleServer [--port P] [--threads T]");
+            System.exit(2);
+        }
+        PuzzleServer server = new PuzzleServer(port, new PuzzlePool(threads));
+        server.start();
+        System.err.println("PuzzleServer à l'écoute sur le port " + server.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /** Arrête le serveur après au plus {@code delaySeconds} secondes pour les requêtes en cours. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        requests.shutdownNow();
+        seeded.shutdownNow();
+        pool.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Un thread virtuel par tâche si le JDK le permet. La méthode est cherchée par réflexion :
+     * le projet se compile en Java 17, où elle n'existe pas encore.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "puzzle-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private JSONObject puzzle(Map<String, String> query) throws IOException {
+        int box = Integer.parseInt(query.getOrDefault("box", "3"));
+        SudokuGeometry.of(box);
+        Difficulty difficulty = Difficulty.parse(query.getOrDefault("difficulty", Difficulty.MEDIUM.name()));
+        String seed = query.get("seed");
+        Future<Puzzle> next;
+        if (seed != null) {
+            long value = Long.parseLong(seed);
+            next = seeded.submit(() -> {
+                SudokuGenerator generator = generators.borrow(box);
+                try {
+                    return generator.generate(value, difficulty);
+                } finally {
+                    generators.release(box, generator);
+                }
+            });
+        } else {
+            next = pool.next(box, difficulty);
+        }
+        Puzzle puzzle;
+        try {
+            puzzle = next.get(GENERATE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Génération interrompue", e);
+        } catch (ExecutionException | TimeoutException e) {
+            if (seed != null) {
+                // L'interruption fait abandonner le générateur : son thread se libère aussitôt
+                next.cancel(true);
+            }
+            throw new IOException("Génération impossible", e);
+        }
+        JSONObject out = new JSONObject()
+                .put("box", box)
+                .put("size", puzzle.getSize())
+                .put("difficulty", puzzle.getDifficulty() != null ? puzzle.getDifficulty().name() : difficulty.name())
+                .put("clues", puzzle.getClueCount())
+                .put("grid", SudokuBoard.toLine(puzzle.getGivens()))
+                .put("solution", SudokuBoard.toLine(puzzle.getSolution()));
+        if (seed != null) {
+            out.put("seed", Long.parseLong(seed));
+        }
+        return out;
+    }
+
+    /**
+     * Résolution avec test d'unicité : DLX jusqu'au 9x9, retour arrière au-delà (la matrice
+     * de couverture d'une grille 16x16 ou 25x25 est trop lourde pour une seule requête).
+     */
+    private JSONObject solve(int[] grid) {
+        int box = SudokuGeometry.forCells(grid.length).box;
+        JSONObject out = new JSONObject().put("box", box);
+        if (conflicts(grid, null) > 0) {
+            return out.put("status", "invalid");
+        }
+        int found;
+        boolean aborted;
+        int[] solution = null;
+        if (box <= 3) {
+            DlxSolver dlx = solvers.borrow(box);
+            try {
+                found = dlx.solve(grid, 2, MAX_NODES);
+                aborted = dlx.isAborted();
+                if (found > 0) {
+                    solution = dlx.getSolution().clone();
+                }
+            } finally {
+                solvers.release(box, dlx);
+            }
+        } else {
+            BacktrackEngine engine = engines.borrow(box);
+            try {
+                SudokuBoard board = engine.getBoard();
+                board.load(grid);
+                engine.start(null);
+                BacktrackEngine.Status status = engine.run(MAX_NODES);
+                if (status == BacktrackEngine.Status.SOLVED) {
+                    solution = board.toArray();
+                    status = engine.run(MAX_NODES - engine.getNodes());
+                }
+                found = (int) engine.getSolutions();
+                aborted = status == BacktrackEngine.Status.PAUSED;
+            } finally {
+                engines.release(box, engine);
+            }
+        }
+        String status = found >= 2 ? "multiple" : aborted ? "unknown" : found == 1 ? "unique" : "none";
+        out.put("status", status);
+        if (solution != null) {
+            out.put("solution", SudokuBoard.toLine(solution));
+        }
+        return out;
+    }
+
+    private JSONObject validate(int[] grid) {
+        int box = SudokuGeometry.forCells(grid.length).box;
+        SudokuModel model = models.borrow(box);
+        try {
+            JSONArray cells = new JSONArray();
+            int conflicts = conflicts(grid, model);
+            for (int cell = 0; cell < grid.length && conflicts > 0; cell++) {
+                if (model.isConflict(cell)) {
+                    cells.put(cell);
+                }
+            }
+            return new JSONObject()
+                    .put("box", box)
+                    .put("filled", model.getFilledCount())
+                    .put("cells", grid.length)
+                    .put("conflicts", cells)
+                    .put("solved", model.isSolved());
+        } finally {
+            models.release(box, model);
+        }
+    }
+
+    private JSONObject hint(int[] grid) {
+        int box = SudokuGeometry.forCells(grid.length).box;
+        JSONObject out = new JSONObject().put("box", box);
+        if (conflicts(grid, null) > 0) {
+            return out.put("status", "invalid");
+        }
+        HintEngine engine = hints.borrow(box);
+        try {
+            engine.reset(grid, null);
+            Deduction d = engine.next();
+            if (d == null) {
+                return out.put("status", "none");
+            }
+            out.put("status", "ok")
+                    .put("technique", d.getTechnique().name())
+                    .put("text", engine.describe(d));
+            if (d.isPlacement()) {
+                out.put("cell", d.getCell()).put("value", d.getValue());
+            } else {
+                JSONArray eliminations = new JSONArray();
+                for (int i = 0; i < d.getEliminationCount(); i++) {
+                    eliminations.put(new JSONObject()
+                            .put("cell", d.getEliminationCell(i))
+                            .put("mask", d.getEliminationMask(i)));
+                }
+                out.put("eliminations", eliminations);
+            }
+            return out;
+        } finally {
+            hints.release(box, engine);
+        }
+    }
+
+    /** Couples (unité, valeur) en double dans {@code grid}, comptés par {@code model} (ou un modèle emprunté). */
+    private int conflicts(int[] grid, SudokuModel model) {
+        int box = SudokuGeometry.forCells(grid.length).box;
+        if (model != null) {
+            model.load(grid);
+            return model.getConflictCount();
+        }
+        SudokuModel borrowed = models.borrow(box);
+        try {
+            borrowed.load(grid);
+            return borrowed.getConflictCount();
+        } finally {
+            models.release(box, borrowed);
+        }
+    }
+
+    private interface Endpoint {
+        JSONObject call() throws IOException;
+    }
+
+    /**
+     * Vérifie la méthode, appelle le point d'entrée et envoie sa réponse ; une requête mal
+     * formée donne 400, une méthode inattendue 405, toute autre erreur 500.
+     */
+    private static void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        int status = 200;
+        JSONObject body;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                status = 405;
+                body = error("Méthode non permise : " + exchange.getRequestMethod());
+            } else if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                status = 404;
+                body = error("Ressource inconnue : " + exchange.getRequestURI().getPath());
+            } else {
+                body = endpoint.call();
+            }
+        } catch (IllegalArgumentException | JSONException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            status = 500;
+            body = error(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static JSONObject error(String message) {
+        return new JSONObject().put("error", message);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String val = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(val, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /** Grille du corps de la requête, brute ou dans {@code {"grid": "..."}}. */
+    private static int[] grid(HttpExchange exchange) throws IOException {
+        byte[] raw;
+        try (InputStream in = exchange.getRequestBody()) {
+            raw = in.readNBytes(MAX_BODY + 1);
+        }
+        if (raw.length > MAX_BODY) {
+            throw new IllegalArgumentException("Corps de requête trop long (plus de " + MAX_BODY + " octets)");
+        }
+        String text = new String(raw, StandardCharsets.UTF_8).trim();
+        if (text.startsWith("{")) {
+            text = new JSONObject(text).getString("grid");
+        }
+        return SudokuBoard.parseLine(text.replaceAll("\\s", ""));
+    }
+
+    /** Objets d'une même classe par taille de bloc, empruntés puis rendus. */
+    private static final class Reserve<T> {
+        private final IntFunction<T> factory;
+        @SuppressWarnings("unchecked")
+        private final Queue<T>[] free = (Queue<T>[]) new Queue<?>[SudokuGeometry.MAX_BOX + 1];
+
+        Reserve(IntFunction<T> factory) {
+            this.factory = factory;
+            for (int b = SudokuGeometry.MIN_BOX; b < free.length; b++) {
+                free[b] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+        T borrow(int box) {
+            T t = free[box].poll();
+            return t != null ? t : factory.apply(box);
+        }
+
+        void release(int box, T t) {
+            free[box].offer(t);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Générateur pseudo-aléatoire SplitMix64 : un {@code long} d'état, une addition et un
+ * mélange par tirage, sans synchronisation ni allocation.
+ * <p>
+ * La suite ne dépend que de la graine et l'algorithme est fixé ici, indépendamment du JDK :
+ * une graine enregistrée redonne la même grille d'une version de Java à l'autre. Les tirages
+ * bornés ({@link #nextInt(int)}) sont exactement uniformes, par rejet, et {@link #split()}
+ * fournit un générateur indépendant pour un autre thread. Une instance n'est pas thread-safe.
+ */
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMix64(long seed) {
+        this.state = seed;
+    }
+
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /** Finaliseur de SplitMix64 : bijection de 64 bits bien mélangée. */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Graine n° {@code index} dérivée de {@code seed}, pour donner à chaque tâche sa propre suite. */
+    public static long derive(long seed, long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Entier uniforme dans {@code [0, bound)} : multiplication sur 32 bits plutôt que modulo,
+     * et rejet des quelques tirages qui favoriseraient les premières valeurs (méthode de Lemire).
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Borne non positive : " + bound);
+        }
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (-bound & 0xFFFFFFFFL) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /** Mélange uniforme de {@code a[from .. to)} en place (Fisher–Yates). */
+    public void shuffle(int[] a, int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + nextInt(i - from + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
+
+    /** Nouveau générateur dont la suite est indépendante de celle-ci ; avance celle-ci d'un tirage. */
+    public SplitMix64 split() {
+        return new SplitMix64(mix(nextLong()));
+    }
+}
@@ -9,13 +9,26 @@ public class Sudoku {
     private int[][] table;
     private long tpsD;
     private Timer time;
+    private final SudokuBoard board = new SudokuBoard();
+    private final SplitMix64 rng;
 
     public int[][] getTable() {
         return table;
     }
 
     public Sudoku(){
+        this(new Random());
+    }
+
+    /** Générateur reproductible : même {@code rand} (même graine), même grille. */
+    public Sudoku(Random rand){
+        this(rand.nextLong());
+    }
+
+    /** Générateur reproductible : même graine, même grille. */
+    public Sudoku(long seed){
         this.table = new int[9][9];
+        this.rng = new SplitMix64(seed);
     }
 
     public void afficherTable(){
@@ -34,77 +47,44 @@ public class Sudoku {
     }
 
     public void generate(){
-        remplir(0, 0);
+        board.load(table);
+        board.remplir(rng);
+        board.copyTo(table);
     }
 
-    private boolean remplir(int l, int c){
-        if (c >= 9){
-            c = 0;
-            l++;
-        }
-        if (l >= 9){
-            return true;
-        }
-
-        if (table[l][c] != 0){
-            return remplir(l, c+1);
-        }
-
-        int[] nbre = melangerNbre();
-        for(int valeur : nbre){
-            if (estValide(l, c, valeur)){
-                table[l][c] = valeur;
-                if (remplir(l, c+1)){
-                    return true;
-                }
-                table[l][c] = 0;
-            }
+    /** Retire des indices tant que la grille garde une solution unique, jusqu'à {@code indices} cases remplies. */
+    public void carve(int indices){
+        int[] puzzle = new PuzzleCarver().carve(DlxSolver.flatten(table), indices, PuzzleCarver.Symmetry.NONE, rng);
+        for (int i = 0; i < 9; i++) {
+            System.arraycopy(puzzle, i * 9, table[i], 0, 9);
         }
-        return false;
     }
 
-    private int[] melangerNbre(){
-        int[] nbre = new int[9];
-        for (int i = 0; i < 9; i++) {
-            nbre[i] = i + 1;
+    /** Résout la grille courante avec {@link DlxSolver} ; renvoie faux si elle n'a pas de solution. */
+    public boolean solve(){
+        DlxSolver solver = new DlxSolver();
+        if (solver.solve(table, 1, Long.MAX_VALUE) == 0){
+            return false;
         }
-        Random rand = new Random();
+        int[] sol = solver.getSolution();
         for (int i = 0; i < 9; i++) {
-            int ind = rand.nextInt(9);
-            int temp = nbre[i];
-            nbre[i] = nbre[ind];
-            nbre[ind] = temp;
+            System.arraycopy(sol, i * 9, table[i], 0, 9);
         }
-        return nbre;
+        return true;
     }
 
-    private boolean estValide(int l, int c, int val){
-        for (int i = 0; i < 9; i++) {
-            if (table[l][i] == val){
-                return false;
-            }
-        }
-
-        for (int i = 0; i < 9; i++) {
-            if (table[i][c] == val){
-                return false;
-            }
-        }
+    /** Nombre de solutions de la grille courante, en s'arrêtant à {@code limite}. */
+    public int countSolutions(int limite){
+        return new DlxSolver().solve(table, limite, Long.MAX_VALUE);
+    }
 
-        int d = l - l % 3;
-        int dc = c - c % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (table[d + i][dc + j] == val){
-                    return false;
-                }
-            }
-        }
-        return true;
+    private boolean estValide(int l, int c, int val){
+        return board.estValide(l, c, val);
     }
 
     public void play(){
         tpsD = System.currentTimeMillis();
+        board.load(table);
 
         Scanner scan = new Scanner(System.in);
         while (true){
@@ -138,18 +118,8 @@ public class Sudoku {
                 continue;
             }
             table[ligne][col] = val;
-            boolean complete = true;
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    if (table[i][j] == 0){
-                        complete = false;
-                        break;
-                    }
-                }
-                if (!complete){
-                    break;
-                }
-            }
+            board.place(ligne, col, val);
+            boolean complete = board.isFull();
             if (complete){
                 System.out.println("Félicitations! vous avez réussis");
                 return;
@@ -160,11 +130,7 @@ public class Sudoku {
     public static void main(String[] args) {
         Sudoku game = new Sudoku();
         game.generate();
-        for (int i = 0; i < 50; i++) {
-            int l = (int) (Math.random() * 9);
-            int c = (int) (Math.random() * 9);
-            game.getTable()[l][c] = 0;
-        }
+        game.carve(31);
         game.play();
     }
 }
\ No newline at end of file
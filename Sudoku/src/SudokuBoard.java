@@ -0,0 +1,485 @@
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Grille de Sudoku (4x4 à 25x25) stockée à plat, avec masques d'occupation par ligne, colonne et bloc.
+ * <p>
+ * Chaque unité garde un masque de {@code size} bits (bit {@code v - 1} = valeur {@code v} présente),
+ * mis à jour à chaque {@link #place} / {@link #remove}. Tester une valeur ou lister les
+ * candidats d'une case revient à un OU de trois masques au lieu de relire 3 unités entières.
+ * <p>
+ * Les variantes ({@link SudokuConstraint}) ajoutent leurs unités à la géométrie, avec un masque
+ * chacune, et leurs restrictions de candidats ; une grille classique n'en paie pas le coût.
+ */
+public final class SudokuBoard {
+    /** Nombre de nœuds au-delà duquel {@link #remplir} repart de zéro plutôt que de s'enliser. */
+    private static final long RESTART_NODES = 20_000;
+    private static final int MAX_RESTARTS = 50;
+    private static final int FAILED = 0, SOLVED = 1, ABORTED = 2;
+    /** Résultats de {@link #chooseBranch} : grille complète, ou case / valeur sans possibilité. */
+    public static final int FULL = -1, DEAD_END = -2;
+
+    private final SudokuGeometry geo;
+    private final int size;
+    private final int[] cells;
+    private final int[] rowMask;
+    private final int[] colMask;
+    private final int[] boxMask;
+    /** Masques des unités des variantes, à la suite des blocs dans {@link SudokuGeometry#units}. */
+    private final int[] extraMask;
+    private final SudokuConstraint[] rules;
+    /** Règles qui restreignent les candidats par {@link SudokuConstraint#allowed}. */
+    private final SudokuConstraint[] filters;
+    /** Vrai si la grille est classique : trois masques suffisent. */
+    private final boolean plain;
+    /**
+     * Vrai si la recherche cherche aussi les singletons cachés et repart de zéro quand elle
+     * s'enlise : grilles 16x16 et plus, et toutes les variantes.
+     */
+    private final boolean assisted;
+    /** Cases de départ de {@link #remplir}, rechargées à chaque redémarrage. */
+    private final int[] start;
+    private BacktrackEngine engine;
+    private int filled;
+    private long nodes;
+    private long nodeLimit;
+    private int branchMask;
+
+    public SudokuBoard() {
+        this(3);
+    }
+
+    public SudokuBoard(int box) {
+        this(box, new SudokuConstraint[0]);
+    }
+
+    /**
+     * Plateau d'une variante. Les règles lui appartiennent : {@link SudokuConstraint#copy()} en
+     * donne d'autres pour un second plateau.
+     */
+    public SudokuBoard(int box, SudokuConstraint... rules) {
+        this.geo = geometry(box, rules);
+        this.size = geo.size;
+        this.cells = new int[geo.cells];
+        this.rowMask = new int[size];
+        this.colMask = new int[size];
+        this.boxMask = new int[size];
+        this.extraMask = new int[geo.unitCount() - 3 * size];
+        this.start = new int[geo.cells];
+        this.rules = rules.clone();
+        this.filters = Arrays.stream(rules).filter(SudokuConstraint::restrictsCandidates)
+                .toArray(SudokuConstraint[]::new);
+        this.plain = geo.isClassic() && rules.length == 0;
+        this.assisted = geo.box > 3 || !plain;
+    }
+
+    private static SudokuGeometry geometry(int box, SudokuConstraint[] rules) {
+        if (rules.length == 0) {
+            return SudokuGeometry.of(box);
+        }
+        int[] regions = null;
+        int[][] units = new int[0][];
+        for (SudokuConstraint rule : rules) {
+            int[] r = rule.regions(box);
+            if (r != null) {
+                if (regions != null) {
+                    throw new IllegalArgumentException("Deux règles remplacent les blocs");
+                }
+                regions = r;
+            }
+            int[][] u = rule.units(box);
+            units = Arrays.copyOf(units, units.length + u.length);
+            System.arraycopy(u, 0, units, units.length - u.length, u.length);
+        }
+        return SudokuGeometry.withUnits(box, regions, units);
+    }
+
+    /** Règles de la variante, vide pour une grille classique. */
+    public SudokuConstraint[] getConstraints() {
+        return rules.clone();
+    }
+
+    public SudokuGeometry getGeometry() {
+        return geo;
+    }
+
+    public int getBoxSize() {
+        return geo.box;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellCount() {
+        return geo.cells;
+    }
+
+    public int boxOf(int l, int c) {
+        return geo.boxOf[l * size + c];
+    }
+
+    public int get(int l, int c) {
+        return cells[l * size + c];
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public boolean isEmpty(int l, int c) {
+        return cells[l * size + c] == 0;
+    }
+
+    public int getFilledCount() {
+        return filled;
+    }
+
+    public boolean isFull() {
+        return filled == geo.cells;
+    }
+
+    /** Masque des valeurs encore possibles pour la case (bit {@code v - 1} pour la valeur {@code v}). */
+    public int candidates(int l, int c) {
+        if (!plain) {
+            return candidates(l * size + c);
+        }
+        return ~(rowMask[l] | colMask[c] | boxMask[geo.boxOf[l * size + c]]) & geo.all;
+    }
+
+    public int candidates(int cell) {
+        int free = ~(rowMask[geo.row[cell]] | colMask[geo.col[cell]] | boxMask[geo.boxOf[cell]]) & geo.all;
+        return plain ? free : restrict(cell, free);
+    }
+
+    /** Retire de {@code free} les valeurs exclues par les unités et les règles de la variante. */
+    private int restrict(int cell, int free) {
+        int[] units = geo.cellUnits[cell];
+        for (int i = 3; i < units.length; i++) {
+            free &= ~extraMask[units[i] - 3 * size];
+        }
+        for (SudokuConstraint rule : filters) {
+            free &= rule.allowed(cell, cells);
+        }
+        return free;
+    }
+
+    public int candidateCount(int l, int c) {
+        return Integer.bitCount(candidates(l, c));
+    }
+
+    /**
+     * Vrai si {@code val} n'apparaît ni dans la ligne, ni dans la colonne, ni dans le bloc, et si
+     * les règles de la variante la permettent.
+     */
+    public boolean estValide(int l, int c, int val) {
+        return (candidates(l, c) & (1 << (val - 1))) != 0;
+    }
+
+    public void place(int l, int c, int val) {
+        place(l * size + c, val);
+    }
+
+    public void place(int cell, int val) {
+        if (cells[cell] != 0) {
+            remove(cell);
+        }
+        int bit = 1 << (val - 1);
+        cells[cell] = val;
+        rowMask[geo.row[cell]] |= bit;
+        colMask[geo.col[cell]] |= bit;
+        boxMask[geo.boxOf[cell]] |= bit;
+        filled++;
+        if (!plain) {
+            int[] units = geo.cellUnits[cell];
+            for (int i = 3; i < units.length; i++) {
+                extraMask[units[i] - 3 * size] |= bit;
+            }
+            for (SudokuConstraint rule : rules) {
+                rule.placed(cell, val);
+            }
+        }
+    }
+
+    public void remove(int l, int c) {
+        remove(l * size + c);
+    }
+
+    public void remove(int cell) {
+        int val = cells[cell];
+        if (val == 0) {
+            return;
+        }
+        int bit = ~(1 << (val - 1));
+        cells[cell] = 0;
+        rowMask[geo.row[cell]] &= bit;
+        colMask[geo.col[cell]] &= bit;
+        boxMask[geo.boxOf[cell]] &= bit;
+        filled--;
+        if (!plain) {
+            int[] units = geo.cellUnits[cell];
+            for (int i = 3; i < units.length; i++) {
+                extraMask[units[i] - 3 * size] &= bit;
+            }
+            for (SudokuConstraint rule : rules) {
+                rule.removed(cell, val);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cells, 0);
+        Arrays.fill(rowMask, 0);
+        Arrays.fill(colMask, 0);
+        Arrays.fill(boxMask, 0);
+        Arrays.fill(extraMask, 0);
+        filled = 0;
+        for (SudokuConstraint rule : rules) {
+            rule.reset();
+        }
+    }
+
+    /** Charge une grille existante ; les cases à 0 restent vides. */
+    public void load(int[][] grille) {
+        clear();
+        for (int l = 0; l < size; l++) {
+            for (int c = 0; c < size; c++) {
+                if (grille[l][c] != 0) {
+                    place(l, c, grille[l][c]);
+                }
+            }
+        }
+    }
+
+    /** Charge une grille à plat ({@code l * size + c}) ; les cases à 0 restent vides. */
+    public void load(int[] grille) {
+        clear();
+        for (int cell = 0; cell < geo.cells; cell++) {
+            if (grille[cell] != 0) {
+                place(cell, grille[cell]);
+            }
+        }
+    }
+
+    public void copyTo(int[][] grille) {
+        for (int l = 0; l < size; l++) {
+            System.arraycopy(cells, l * size, grille[l], 0, size);
+        }
+    }
+
+    public int[] toArray() {
+        return cells.clone();
+    }
+
+    /**
+     * Remplit les cases vides par retour arrière, en commençant toujours par la case qui a le
+     * moins de candidats ; l'ordre d'essai des valeurs vient de {@code ordre} (permutation de
+     * 1..size). Sur les grilles 16x16 et plus et pour les variantes, une recherche qui s'enlise
+     * au-delà de {@link #RESTART_NODES} nœuds repart des cases initiales avec un nouvel ordre.
+     */
+    public boolean remplir(Supplier<int[]> ordre) {
+        System.arraycopy(cells, 0, start, 0, cells.length);
+        for (int restart = 0; ; restart++) {
+            nodes = 0;
+            nodeLimit = assisted && restart < MAX_RESTARTS ? RESTART_NODES : Long.MAX_VALUE;
+            int result = search(ordre);
+            if (result != ABORTED) {
+                return result == SOLVED;
+            }
+            load(start);
+        }
+    }
+
+    /**
+     * Comme {@link #remplir(Supplier)}, les valeurs de chaque case étant essayées dans un ordre
+     * uniforme tiré de {@code rng} : même état de départ, même grille. La recherche passe par
+     * un {@link BacktrackEngine}, sans récursion ni allocation quelle que soit la taille.
+     */
+    public boolean remplir(SplitMix64 rng) {
+        if (engine == null) {
+            engine = new BacktrackEngine(this);
+        }
+        System.arraycopy(cells, 0, start, 0, cells.length);
+        for (int restart = 0; ; restart++) {
+            engine.start(rng);
+            BacktrackEngine.Status status = engine.run(
+                    assisted && restart < MAX_RESTARTS ? RESTART_NODES : Long.MAX_VALUE);
+            if (status != BacktrackEngine.Status.PAUSED) {
+                return status == BacktrackEngine.Status.SOLVED;
+            }
+            load(start);
+        }
+    }
+
+    private int search(Supplier<int[]> ordre) {
+        int best = choose();
+        if (best == FULL) {
+            return SOLVED;
+        }
+        if (best == DEAD_END) {
+            return FAILED;
+        }
+        int possibles = branchMask;
+        for (int val : ordre.get()) {
+            if ((possibles & (1 << (val - 1))) != 0) {
+                if (++nodes > nodeLimit) {
+                    return ABORTED;
+                }
+                place(best, val);
+                int result = search(ordre);
+                if (result != FAILED) {
+                    return result;
+                }
+                remove(best);
+            }
+        }
+        return FAILED;
+    }
+
+    /**
+     * Compte les solutions de la grille courante en s'arrêtant à {@code limit} ; la grille est
+     * laissée telle quelle. Même recherche que {@link #remplir} (case la plus contrainte,
+     * singletons cachés), adaptée aux grandes grilles où la mise en place du {@link DlxSolver}
+     * coûte plus cher que la recherche elle-même.
+     */
+    public int countSolutions(int limit) {
+        return countSolutions(limit, Long.MAX_VALUE);
+    }
+
+    /** Comme {@link #countSolutions(int)}, mais renvoie -1 si la recherche dépasse {@code maxNodes} nœuds. */
+    public int countSolutions(int limit, long maxNodes) {
+        nodes = 0;
+        nodeLimit = maxNodes;
+        int found = count(limit);
+        return nodes > nodeLimit ? -1 : found;
+    }
+
+    private int count(int limit) {
+        int best = choose();
+        if (best == FULL) {
+            return 1;
+        }
+        if (best == DEAD_END) {
+            return 0;
+        }
+        int found = 0;
+        for (int possibles = branchMask; possibles != 0 && found < limit; possibles &= possibles - 1) {
+            if (++nodes > nodeLimit) {
+                return found;
+            }
+            place(best, Integer.numberOfTrailingZeros(possibles) + 1);
+            found += count(limit - found);
+            remove(best);
+        }
+        return found;
+    }
+
+    /**
+     * Case sur laquelle brancher, pour une recherche menée hors de cette classe (voir
+     * {@link ParallelSolutionCounter}) ; ses valeurs à essayer sont dans {@link #getBranchMask()}.
+     * Renvoie {@link #FULL} ou {@link #DEAD_END} comme {@link #choose()}.
+     */
+    public int chooseBranch() {
+        return choose();
+    }
+
+    public int getBranchMask() {
+        return branchMask;
+    }
+
+    /**
+     * Case sur laquelle brancher (la plus contrainte, ou la place unique d'une valeur dans une
+     * unité) ; ses valeurs à essayer sont dans {@link #branchMask}. Renvoie {@link #FULL} si la
+     * grille est complète, {@link #DEAD_END} si une case ou une valeur n'a plus aucune possibilité.
+     */
+    private int choose() {
+        int best = FULL, bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < geo.cells && bestCount > 1; cell++) {
+            if (cells[cell] == 0) {
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+        }
+        if (best == FULL) {
+            return FULL;
+        }
+        if (bestCount == 0) {
+            return DEAD_END;
+        }
+        branchMask = candidates(best);
+        if (bestCount > 1 && assisted) {
+            int forced = hiddenSingle();
+            if (forced < 0) {
+                return DEAD_END;
+            }
+            if (forced > 0) {
+                forced--;
+                best = forced >>> 5;
+                branchMask = 1 << (forced & 31);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Cherche une valeur qui n'a plus qu'une place possible dans une unité.
+     * Renvoie {@code ((case << 5) | bit) + 1}, où {@code bit} est le rang du bit de la valeur
+     * dans les candidats, 0 s'il n'y en a pas, -1 si une valeur n'a plus aucune place. Le
+     * {@code + 1} distingue la case 0, première valeur, de l'absence de résultat.
+     */
+    private int hiddenSingle() {
+        int[][] units = geo.units;
+        for (int u = 0; u < units.length; u++) {
+            int placed = u < size ? rowMask[u] : u < 2 * size ? colMask[u - size]
+                    : u < 3 * size ? boxMask[u - 2 * size] : extraMask[u - 3 * size];
+            int once = 0, twice = 0;
+            for (int cell : units[u]) {
+                if (cells[cell] == 0) {
+                    int cand = candidates(cell);
+                    twice |= once & cand;
+                    once |= cand;
+                }
+            }
+            if ((geo.all & ~placed & ~once) != 0) {
+                return -1;
+            }
+            int single = once & ~twice;
+            if (single != 0) {
+                int bit = Integer.lowestOneBit(single);
+                for (int cell : units[u]) {
+                    if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                        return ((cell << 5) | Integer.numberOfTrailingZeros(bit)) + 1;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** Grille sur une ligne ({@link SudokuGeometry#symbol}), '.' pour les cases vides. */
+    public static String toLine(int[] grille) {
+        char[] line = new char[grille.length];
+        for (int i = 0; i < grille.length; i++) {
+            line[i] = SudokuGeometry.symbol(grille[i]);
+        }
+        return new String(line);
+    }
+
+    /** Inverse de {@link #toLine} ; la taille est déduite de la longueur, '0' vaut aussi une case vide. */
+    public static int[] parseLine(String line) {
+        SudokuGeometry geo = SudokuGeometry.forCells(line.length());
+        int[] grille = new int[geo.cells];
+        for (int i = 0; i < geo.cells; i++) {
+            char ch = line.charAt(i);
+            int val = SudokuGeometry.valueOf(ch);
+            if (val < 0 || val > geo.size) {
+                throw new IllegalArgumentException("Caractère invalide '" + ch + "' en position " + i);
+            }
+            grille[i] = val;
+        }
+        return grille;
+    }
+}
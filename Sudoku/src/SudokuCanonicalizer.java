@@ -0,0 +1,186 @@
+import java.util.Arrays;
+
+/**
+ * Forme canonique d'une grille 9x9 : la plus petite, dans l'ordre lexicographique des 81 cases
+ * (0 = vide), parmi toutes ses transformations ({@link SudokuTransform}) ; les chiffres sont
+ * renumérotés dans leur ordre d'apparition. Deux grilles ont la même forme canonique si et
+ * seulement si l'une est une transformation de l'autre.
+ * <p>
+ * La forme est construite ligne par ligne. Pour la première ligne, toutes les combinaisons
+ * (transposition, ligne choisie, ordre des colonnes) sont essayées et seules celles qui donnent
+ * la plus petite ligne sont gardées ; chaque ligne suivante ne prolonge que ces survivantes,
+ * avec les lignes encore permises (même bande, ou nouvelle bande toutes les trois lignes).
+ * L'essai d'une combinaison s'arrête dès qu'une case dépasse la meilleure ligne connue.
+ * Une instance réutilise ses tampons et n'est pas thread-safe.
+ */
+public final class SudokuCanonicalizer {
+    private static final int N = 9, B = 3, CELLS = 81;
+    /** Les 1296 ordres de colonnes : ordre des piles, puis des colonnes dans chaque pile. */
+    private static final int[][] COLUMN_ORDERS = buildColumnOrders();
+
+    private final int[][] grids = new int[2][CELLS];
+    private final int[] bestRow = new int[N];
+    private final int[] tmpMap = new int[N + 1];
+    private final int[] emptyMap = new int[N + 1];
+    private Candidates current = new Candidates();
+    private Candidates next = new Candidates();
+    private boolean hasBest;
+
+    /** Combinaisons encore en lice, stockées dans des tableaux parallèles. */
+    private static final class Candidates {
+        int count;
+        int[] transposed = new int[1024];
+        int[] columns = new int[1024];
+        int[] usedRows = new int[1024];
+        int[] lastRow = new int[1024];
+        int[] nextLabel = new int[1024];
+        int[] maps = new int[1024 * (N + 1)];
+
+        void add(int t, int co, int used, int row, int label, int[] map) {
+            if (count == transposed.length) {
+                int cap = count * 2;
+                transposed = Arrays.copyOf(transposed, cap);
+                columns = Arrays.copyOf(columns, cap);
+                usedRows = Arrays.copyOf(usedRows, cap);
+                lastRow = Arrays.copyOf(lastRow, cap);
+                nextLabel = Arrays.copyOf(nextLabel, cap);
+                maps = Arrays.copyOf(maps, cap * (N + 1));
+            }
+            transposed[count] = t;
+            columns[count] = co;
+            usedRows[count] = used;
+            lastRow[count] = row;
+            nextLabel[count] = label;
+            System.arraycopy(map, 0, maps, count * (N + 1), N + 1);
+            count++;
+        }
+    }
+
+    private static int[][] buildColumnOrders() {
+        int[][] perms = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int[][] orders = new int[6 * 6 * 6 * 6][N];
+        int k = 0;
+        for (int[] stacks : perms) {
+            for (int[] a : perms) {
+                for (int[] b : perms) {
+                    for (int[] c : perms) {
+                        int[][] within = {a, b, c};
+                        for (int s = 0; s < B; s++) {
+                            for (int i = 0; i < B; i++) {
+                                orders[k][s * B + i] = stacks[s] * B + within[s][i];
+                            }
+                        }
+                        k++;
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+
+    /** Forme canonique de {@code grid} (81 cases à plat, 0 = vide). */
+    public int[] canonicalize(int[] grid) {
+        int[] out = new int[CELLS];
+        canonicalize(grid, out);
+        return out;
+    }
+
+    /** Écrit dans {@code out} la forme canonique de {@code grid}. */
+    public void canonicalize(int[] grid, int[] out) {
+        if (grid.length != CELLS) {
+            throw new IllegalArgumentException("Forme canonique disponible en 9x9 seulement");
+        }
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                grids[0][r * N + c] = grid[r * N + c];
+                grids[1][r * N + c] = grid[c * N + r];
+            }
+        }
+
+        // Première ligne : toutes les combinaisons
+        hasBest = false;
+        next.count = 0;
+        for (int t = 0; t < 2; t++) {
+            for (int r = 0; r < N; r++) {
+                for (int co = 0; co < COLUMN_ORDERS.length; co++) {
+                    consider(t, co, 0, r, emptyMap, 0, 1);
+                }
+            }
+        }
+        System.arraycopy(bestRow, 0, out, 0, N);
+        swap();
+
+        // Lignes suivantes : prolongement des survivantes
+        for (int pos = 1; pos < N; pos++) {
+            hasBest = false;
+            next.count = 0;
+            Candidates cur = current;
+            for (int i = 0; i < cur.count; i++) {
+                int used = cur.usedRows[i];
+                if (pos % B == 0) {
+                    for (int band = 0; band < B; band++) {
+                        if ((used >>> (band * B) & 7) == 0) {
+                            for (int r = band * B; r < band * B + B; r++) {
+                                consider(cur.transposed[i], cur.columns[i], used, r, cur.maps, i * (N + 1), cur.nextLabel[i]);
+                            }
+                        }
+                    }
+                } else {
+                    int band = cur.lastRow[i] / B;
+                    for (int r = band * B; r < band * B + B; r++) {
+                        if ((used & (1 << r)) == 0) {
+                            consider(cur.transposed[i], cur.columns[i], used, r, cur.maps, i * (N + 1), cur.nextLabel[i]);
+                        }
+                    }
+                }
+            }
+            System.arraycopy(bestRow, 0, out, pos * N, N);
+            swap();
+        }
+    }
+
+    private void swap() {
+        Candidates tmp = current;
+        current = next;
+        next = tmp;
+    }
+
+    /**
+     * Calcule la ligne {@code r} de la grille {@code t} dans l'ordre de colonnes {@code co},
+     * chiffres renumérotés à partir de la table {@code maps[mapOffset ..]}, et la compare à la
+     * meilleure ligne connue : abandon dès qu'elle est plus grande, remise à zéro des survivantes
+     * si elle est plus petite.
+     */
+    private void consider(int t, int co, int used, int r, int[] maps, int mapOffset, int label) {
+        int[] g = grids[t];
+        int[] order = COLUMN_ORDERS[co];
+        System.arraycopy(maps, mapOffset, tmpMap, 0, N + 1);
+        boolean better = !hasBest;
+        int base = r * N;
+        for (int c = 0; c < N; c++) {
+            int v = g[base + order[c]];
+            int m = 0;
+            if (v != 0) {
+                m = tmpMap[v];
+                if (m == 0) {
+                    m = label++;
+                    tmpMap[v] = m;
+                }
+            }
+            if (!better) {
+                if (m > bestRow[c]) {
+                    return;
+                }
+                if (m < bestRow[c]) {
+                    better = true;
+                    next.count = 0;
+                }
+            }
+            if (better) {
+                bestRow[c] = m;
+            }
+        }
+        hasBest = true;
+        next.add(t, co, used | 1 << r, r, label, tmpMap);
+    }
+}
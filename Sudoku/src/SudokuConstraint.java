@@ -0,0 +1,52 @@
+/**
+ * Règle supplémentaire d'une variante de Sudoku, branchée sur un {@link SudokuBoard}.
+ * <p>
+ * Une règle peut apporter des unités ({@link #units}, {@link #regions}) : le plateau les
+ * intègre à sa géométrie, et elles profitent alors des mêmes masques, du même choix de case
+ * et des mêmes singletons cachés que les lignes, colonnes et blocs. Une règle qui n'est pas
+ * une unité (cages de somme, cavalier...) restreint les candidats de chaque case par
+ * {@link #allowed}, tenue à jour par {@link #placed} / {@link #removed}. Le plateau
+ * calcule les candidats de toutes les règles de la même façon, la recherche
+ * ({@link BacktrackEngine}, {@link SudokuBoard#countSolutions}) est donc commune à toutes
+ * les variantes.
+ * <p>
+ * Une règle avec un état appartient à un seul plateau : {@link #copy()} en donne une autre,
+ * vide, pour un second plateau.
+ */
+public interface SudokuConstraint {
+    /** Unités de {@code size} cases qui doivent toutes différer, ajoutées à celles de la grille. */
+    default int[][] units(int box) {
+        return new int[0][];
+    }
+
+    /** Région de chaque case, qui remplace les blocs carrés ; null pour garder les blocs. */
+    default int[] regions(int box) {
+        return null;
+    }
+
+    /**
+     * Valeurs permises par la règle en {@code cell} (bit {@code v - 1} pour {@code v}), compte
+     * tenu de la grille {@code cells} ; -1 si la règle n'en exclut aucune.
+     */
+    default int allowed(int cell, int[] cells) {
+        return -1;
+    }
+
+    /** Vrai si la règle restreint les candidats par {@link #allowed}. */
+    default boolean restrictsCandidates() {
+        return false;
+    }
+
+    default void placed(int cell, int val) {
+    }
+
+    default void removed(int cell, int val) {
+    }
+
+    /** La grille a été vidée. */
+    default void reset() {
+    }
+
+    /** Même règle, dans l'état d'une grille vide, pour un autre plateau. */
+    SudokuConstraint copy();
+}
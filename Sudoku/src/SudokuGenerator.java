@@ -0,0 +1,68 @@
+import java.util.Random;
+
+/**
+ * Génère des grilles complètes puis des grilles à solution unique pour une taille de bloc donnée
+ * (2 à 5, soit 4x4 à 25x25). Une instance garde son plateau, son solveur et son générateur
+ * {@link SplitMix64} : la même graine donne la même suite de grilles, et
+ * {@link #generate(long, Difficulty)} redonne toujours la même grille pour une graine, ce qui
+ * permet de la régénérer à la demande plutôt que de la stocker. Le remplissage et le carving
+ * n'allouent rien en dehors des grilles rendues. Les variantes ({@link SudokuConstraint})
+ * passent par le même remplissage et le même carving. Si le thread est interrompu, la grille
+ * en cours est abandonnée par une {@link java.util.concurrent.CancellationException} et le
+ * générateur reste utilisable. Non thread-safe.
+ */
+public final class SudokuGenerator {
+    private final SudokuBoard board;
+    private final PuzzleCarver carver;
+    private final SplitMix64 rng;
+
+    public SudokuGenerator(int box, long seed) {
+        this(box, seed, new SudokuConstraint[0]);
+    }
+
+    /** Générateur d'une variante : le plateau garde les règles, le carver en reçoit des copies. */
+    public SudokuGenerator(int box, long seed, SudokuConstraint... rules) {
+        SudokuConstraint[] copies = new SudokuConstraint[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            copies[i] = rules[i].copy();
+        }
+        this.board = new SudokuBoard(box, rules);
+        this.carver = new PuzzleCarver(box, copies);
+        this.rng = new SplitMix64(seed);
+    }
+
+    public SudokuGenerator(int box, Random rand) {
+        this(box, rand.nextLong());
+    }
+
+    public int getBoxSize() {
+        return board.getBoxSize();
+    }
+
+    /** Repart de {@code seed} : les grilles suivantes sont celles d'un générateur neuf de même graine. */
+    public void setSeed(long seed) {
+        rng.setSeed(seed);
+    }
+
+    /** Nouvelle grille complète et valide. */
+    public int[] generateSolution() {
+        board.clear();
+        board.remplir(rng);
+        return board.toArray();
+    }
+
+    public Puzzle generate(int targetClues, PuzzleCarver.Symmetry symmetry) {
+        int[] solution = generateSolution();
+        return new Puzzle(board.getBoxSize(), carver.carve(solution, targetClues, symmetry, rng), solution);
+    }
+
+    public Puzzle generate(Difficulty difficulty) {
+        return generate(difficulty.getTargetClues(board.getBoxSize()), PuzzleCarver.Symmetry.NONE);
+    }
+
+    /** La grille de graine {@code seed} : toujours la même pour une taille et une difficulté données. */
+    public Puzzle generate(long seed, Difficulty difficulty) {
+        rng.setSeed(seed);
+        return generate(difficulty);
+    }
+}
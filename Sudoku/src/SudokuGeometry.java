@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * Géométrie d'une grille de Sudoku à blocs de {@code box x box} cases (4x4 jusqu'à 25x25) :
+ * ligne, colonne, bloc et voisines de chaque case, cases de chaque unité.
+ * <p>
+ * Les cases sont numérotées {@code l * size + c}. Les tables sont calculées une seule fois par
+ * taille et partagées ({@link #of(int)}) ; elles ne doivent pas être modifiées.
+ */
+public final class SudokuGeometry {
+    public static final int MIN_BOX = 2;
+    public static final int MAX_BOX = 5;
+
+    private static final SudokuGeometry[] CACHE = new SudokuGeometry[MAX_BOX + 1];
+
+    public final int box;
+    public final int size;
+    public final int cells;
+    /** Masque de toutes les valeurs (bit {@code v - 1} pour la valeur {@code v}). */
+    public final int all;
+
+    public final int[] row;
+    public final int[] col;
+    public final int[] boxOf;
+    /** Cases de chaque unité : lignes {@code [0, size)}, colonnes, blocs, puis unités d'une variante. */
+    public final int[][] units;
+    /** Unités de chaque case : ligne, colonne, bloc, puis éventuelles unités de variante. */
+    public final int[][] cellUnits;
+    /** Cases qui partagent au moins une unité avec chaque case. */
+    public final int[][] peers;
+    private final boolean classic;
+
+    public static synchronized SudokuGeometry of(int box) {
+        if (box < MIN_BOX || box > MAX_BOX) {
+            throw new IllegalArgumentException("Taille de bloc non gérée : " + box);
+        }
+        if (CACHE[box] == null) {
+            CACHE[box] = new SudokuGeometry(box);
+        }
+        return CACHE[box];
+    }
+
+    /** Géométrie d'une grille de {@code cellCount} cases (16, 81, 256 ou 625). */
+    public static SudokuGeometry forCells(int cellCount) {
+        for (int b = MIN_BOX; b <= MAX_BOX; b++) {
+            if (b * b * b * b == cellCount) {
+                return of(b);
+            }
+        }
+        throw new IllegalArgumentException("Nombre de cases invalide : " + cellCount);
+    }
+
+    /**
+     * Géométrie d'une variante : {@code regionOf} (région de chaque case, {@code size} cases par
+     * région) remplace les blocs s'il n'est pas null, et chaque tableau de {@code extraUnits}
+     * ajoute une unité de {@code size} cases qui doivent toutes différer, à la suite des blocs.
+     * Les tables ne sont pas partagées.
+     */
+    public static SudokuGeometry withUnits(int box, int[] regionOf, int[][] extraUnits) {
+        if (box < MIN_BOX || box > MAX_BOX) {
+            throw new IllegalArgumentException("Taille de bloc non gérée : " + box);
+        }
+        return new SudokuGeometry(box, regionOf, extraUnits);
+    }
+
+    private SudokuGeometry(int box) {
+        this(box, null, new int[0][]);
+    }
+
+    private SudokuGeometry(int box, int[] regionOf, int[][] extraUnits) {
+        this.box = box;
+        this.size = box * box;
+        this.cells = size * size;
+        this.all = (1 << size) - 1;
+        this.classic = regionOf == null && extraUnits.length == 0;
+        row = new int[cells];
+        col = new int[cells];
+        boxOf = new int[cells];
+        units = new int[3 * size + extraUnits.length][];
+        for (int u = 0; u < 3 * size; u++) {
+            units[u] = new int[size];
+        }
+        int[] extraCount = new int[cells];
+        for (int e = 0; e < extraUnits.length; e++) {
+            if (extraUnits[e].length != size) {
+                throw new IllegalArgumentException("Une unité doit compter " + size + " cases");
+            }
+            units[3 * size + e] = extraUnits[e].clone();
+            for (int cell : extraUnits[e]) {
+                extraCount[cell]++;
+            }
+        }
+        cellUnits = new int[cells][];
+
+        int[] regionFill = new int[size];
+        for (int cell = 0; cell < cells; cell++) {
+            int l = cell / size, c = cell % size;
+            int b = regionOf == null ? (l / box) * box + c / box : regionOf[cell];
+            if (b < 0 || b >= size || regionFill[b] == size) {
+                throw new IllegalArgumentException("Région invalide ou de plus de " + size + " cases : " + b);
+            }
+            row[cell] = l;
+            col[cell] = c;
+            boxOf[cell] = b;
+            units[l][c] = cell;
+            units[size + c][l] = cell;
+            units[2 * size + b][regionFill[b]++] = cell;
+            cellUnits[cell] = new int[3 + extraCount[cell]];
+            cellUnits[cell][0] = l;
+            cellUnits[cell][1] = size + c;
+            cellUnits[cell][2] = 2 * size + b;
+        }
+        int[] next = new int[cells];
+        for (int e = 0; e < extraUnits.length; e++) {
+            for (int cell : extraUnits[e]) {
+                cellUnits[cell][3 + next[cell]++] = 3 * size + e;
+            }
+        }
+
+        peers = new int[cells][];
+        int[] seen = new int[cells];
+        int[] buffer = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int n = 0;
+            for (int u : cellUnits[cell]) {
+                for (int other : units[u]) {
+                    if (other != cell && seen[other] != cell + 1) {
+                        seen[other] = cell + 1;
+                        buffer[n++] = other;
+                    }
+                }
+            }
+            Arrays.sort(buffer, 0, n);
+            peers[cell] = Arrays.copyOf(buffer, n);
+        }
+    }
+
+    /** Vrai pour la géométrie classique : blocs carrés et aucune unité supplémentaire. */
+    public boolean isClassic() {
+        return classic;
+    }
+
+    public int unitCount() {
+        return units.length;
+    }
+
+    /** Caractère d'une valeur : '1' à '9', puis 'A' pour 10, 'B' pour 11... '.' pour une case vide. */
+    public static char symbol(int val) {
+        if (val == 0) {
+            return '.';
+        }
+        return val <= 9 ? (char) ('0' + val) : (char) ('A' + val - 10);
+    }
+
+    /** Inverse de {@link #symbol} ; renvoie -1 pour un caractère inconnu. */
+    public static int valueOf(char ch) {
+        if (ch == '.' || ch == '0') {
+            return 0;
+        }
+        if (ch >= '1' && ch <= '9') {
+            return ch - '0';
+        }
+        char up = Character.toUpperCase(ch);
+        if (up >= 'A' && up <= 'Z') {
+            return up - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -1,22 +1,60 @@
-import java.util.Random;
 import java.awt.*;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.event.*;
-import java.util.List;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import com.formdev.flatlaf.FlatDarkLaf;
 
 public class SudokuGui extends JFrame {
-    private int[][] solution;
+    /** Tailles proposées dans le sélecteur, en taille de bloc (2 = 4x4 ... 5 = 25x25). */
+    private static final Integer[] BOX_SIZES = {2, 3, 4, 5};
+    /** Partagée par toutes les fenêtres : les grilles d'avance survivent à la fermeture d'une partie. */
+    private static final PuzzlePool POOL = new PuzzlePool();
+    private static final int HINT_PATTERN = 1, HINT_ELIMINATION = 2, HINT_PLACED = 3;
+    /** Journal de la partie en cours, proposé à la reprise au prochain lancement. */
+    private static final Path JOURNAL = Paths.get(System.getProperty("user.home"), ".sudoku", "partie.journal");
+
+    private int box;
+    private int size;
+    private Difficulty difficulty = Difficulty.MEDIUM;
+    /** Numéro de la dernière partie demandée ; une grille arrivée pour une demande plus ancienne est ignorée. */
+    private int gameRequest;
+    private JPanel gridHolder;
     private int[][] puzzle;
-    private JTextField[][] cells = new JTextField[9][9];
+    /** État de la partie : les vérifications lisent ce modèle, jamais le texte des cases. */
+    private SudokuModel model;
+    /** Cases dont le texte n'est pas une valeur de la grille (lettre, nombre trop grand...). */
+    private boolean[] invalid;
+    private HintEngine hints;
+    /** Coups de la partie, pour annuler, rétablir et reprendre ; null si le journal est indisponible. */
+    private MoveJournal journal;
+    /** Vrai pendant qu'une annulation ou une reprise remplit les cases : rien n'est journalisé. */
+    private boolean replaying;
+    /** Cases mises en avant par le dernier indice : {@link #HINT_PATTERN}, {@link #HINT_ELIMINATION} ou {@link #HINT_PLACED}. */
+    private int[] hintMarks;
+    private int focusedCell = -1;
+    private JTextField[][] cells;
     private JLabel timerLabel;
     private Timer timer;
     private int elapsedSeconds = 0;
 
     public SudokuGui() {
+        this(3);
+    }
+
+    public SudokuGui(int box) {
         FlatDarkLaf.setup();
+        this.box = box;
+        this.size = box * box;
+        for (Difficulty d : Difficulty.values()) {
+            POOL.prefill(box, d);
+        }
 
         setTitle("🎮 Sudoku Challenge");
         setSize(700, 800);
@@ -27,89 +65,176 @@ public class SudokuGui extends JFrame {
         // Couleur globale
         getContentPane().setBackground(new Color(245, 247, 250));
 
-        solution = new int[9][9];
-        puzzle = new int[9][9];
-
-        generateSolution();
-        copySolutionToPuzzle();
-        removeRandomCells(50);
-
         JPanel titlePanel = createTitlePanel();
-        JPanel gridPanel = createGridPanel();
+        gridHolder = new JPanel(new BorderLayout());
         JPanel controlPanel = createControlPanel();
 
         add(titlePanel, BorderLayout.NORTH);
-        add(gridPanel, BorderLayout.CENTER);
+        add(gridHolder, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.SOUTH);
 
-        startTimer();
+        createTimer();
+        addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent e) {
+                closeJournal();
+            }
+        });
+        bindKey("control Z", this::undo);
+        bindKey("control Y", this::redo);
         setVisible(true);
+        if (!resumeGame()) {
+            newGame();
+        }
     }
 
-    // --- Génération du Sudoku ---
-    private void generateSolution() {
-        remplir(0, 0);
+    private void bindKey(String stroke, Runnable action) {
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(stroke), stroke);
+        getRootPane().getActionMap().put(stroke, new AbstractAction() {
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
     }
 
-    private boolean remplir(int l, int c) {
-        if (c == 9) { c = 0; l++; }
-        if (l == 9) return true;
+    // --- Génération du Sudoku ---
 
-        int[] nums = melangerNombres();
-        for (int val : nums) {
-            if (estValide(solution, l, c, val)) {
-                solution[l][c] = val;
-                if (remplir(l, c + 1)) return true;
-                solution[l][c] = 0;
-            }
+    /**
+     * Demande une grille à la réserve. Si elle est déjà prête, la partie commence tout de suite ;
+     * sinon un message d'attente s'affiche et la grille est installée sur le thread Swing à son arrivée.
+     */
+    private void newGame(int boxSize, Difficulty level) {
+        int request = ++gameRequest;
+        timer.stop();
+        CompletableFuture<Puzzle> next = POOL.next(boxSize, level);
+        if (next.isDone() && !next.isCompletedExceptionally()) {
+            startGame(next.join());
+            return;
         }
-        return false;
+        showWaiting();
+        next.whenComplete((p, error) -> SwingUtilities.invokeLater(() -> {
+            if (request != gameRequest) {
+                return;
+            }
+            if (error != null) {
+                JOptionPane.showMessageDialog(this,
+                        "⚠️ Impossible de générer une grille : " + error.getMessage(),
+                        "Erreur",
+                        JOptionPane.ERROR_MESSAGE);
+            } else {
+                startGame(p);
+            }
+        }));
     }
 
-    private int[] melangerNombres() {
-        int[] nums = new int[9];
-        for (int i = 0; i < 9; i++) nums[i] = i + 1;
-        Random rand = new Random();
-        for (int i = 0; i < 9; i++) {
-            int j = rand.nextInt(9);
-            int tmp = nums[i];
-            nums[i] = nums[j];
-            nums[j] = tmp;
+    /** Propose de reprendre la partie du journal ; vrai si elle a été reprise. */
+    private boolean resumeGame() {
+        if (!Files.exists(JOURNAL)) {
+            return false;
         }
-        return nums;
+        int answer = JOptionPane.showConfirmDialog(this,
+                "Une partie n'a pas été terminée. La reprendre ?",
+                "Reprendre",
+                JOptionPane.YES_NO_OPTION);
+        if (answer != JOptionPane.YES_OPTION) {
+            return false;
+        }
+        MoveJournal resumed;
+        try {
+            resumed = MoveJournal.resume(JOURNAL);
+        } catch (IOException | RuntimeException e) {
+            JOptionPane.showMessageDialog(this,
+                    "⚠️ Impossible de reprendre la partie : " + e.getMessage(),
+                    "Erreur",
+                    JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        ++gameRequest;
+        startGame(resumed.getPuzzle(), resumed);
+        return true;
     }
 
-    private boolean estValide(int[][] grille, int l, int c, int val) {
-        for (int i = 0; i < 9; i++) {
-            if (grille[l][i] == val || grille[i][c] == val) return false;
+    private void startGame(Puzzle p) {
+        startGame(p, null);
+    }
+
+    /** Installe la grille {@code p}, vide ou dans l'état du journal {@code resumed}. */
+    private void startGame(Puzzle p, MoveJournal resumed) {
+        closeJournal();
+        journal = resumed != null ? resumed : openJournal(p);
+        box = p.getBoxSize();
+        size = p.getSize();
+        puzzle = new int[size][size];
+        cells = new JTextField[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(p.getGivens(), i * size, puzzle[i], 0, size);
         }
-        int startRow = l - l % 3, startCol = c - c % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (grille[startRow + i][startCol + j] == val) return false;
+        model = new SudokuModel(box);
+        model.load(p.getGivens());
+        invalid = new boolean[size * size];
+        hints = new HintEngine(box);
+        hints.reset(p.getGivens(), p.getSolution());
+        hintMarks = new int[size * size];
+        focusedCell = -1;
+        setCenter(createGridPanel());
+        elapsedSeconds = 0;
+        if (resumed != null) {
+            int[] values = resumed.getValues();
+            replaying = true;
+            for (int cell = 0; cell < values.length; cell++) {
+                if (!model.isGiven(cell) && values[cell] != 0) {
+                    cells[cell / size][cell % size].setText(String.valueOf(SudokuGeometry.symbol(values[cell])));
+                }
             }
+            replaying = false;
+            elapsedSeconds = resumed.getElapsedSeconds();
         }
-        return true;
+        timerLabel.setText("⏳ " + elapsedSeconds + " s");
+        timer.restart();
     }
 
-    private void copySolutionToPuzzle() {
-        for (int i = 0; i < 9; i++) {
-            System.arraycopy(solution[i], 0, puzzle[i], 0, 9);
+    private MoveJournal openJournal(Puzzle p) {
+        try {
+            Files.createDirectories(JOURNAL.getParent());
+            return MoveJournal.create(JOURNAL, p);
+        } catch (IOException e) {
+            System.err.println("Journal de partie indisponible : " + e.getMessage());
+            return null;
         }
     }
 
-    private void removeRandomCells(int count) {
-        Random rand = new Random();
-        for (int i = 0; i < count; ) {
-            int r = rand.nextInt(9);
-            int c = rand.nextInt(9);
-            if (puzzle[r][c] != 0) {
-                puzzle[r][c] = 0;
-                i++;
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Fermeture du journal : " + e.getMessage());
             }
+            journal = null;
         }
     }
 
+    /** Le journal ne peut plus être écrit : la partie continue sans annulation ni reprise. */
+    private void journalFailed(IOException e) {
+        closeJournal();
+        JOptionPane.showMessageDialog(this,
+                "⚠️ Le journal de la partie ne peut plus être enregistré : " + e.getMessage(),
+                "Erreur",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void showWaiting() {
+        JLabel waiting = new JLabel("⏳ Génération de la grille...", SwingConstants.CENTER);
+        waiting.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        setCenter(waiting);
+    }
+
+    private void setCenter(JComponent component) {
+        gridHolder.removeAll();
+        gridHolder.add(component, BorderLayout.CENTER);
+        gridHolder.revalidate();
+        gridHolder.repaint();
+    }
+
     // --- Interface ---
     private JPanel createTitlePanel() {
         JPanel titlePanel = new JPanel(new BorderLayout());
@@ -128,43 +253,53 @@ public class SudokuGui extends JFrame {
     }
 
     private JPanel createGridPanel() {
-        JPanel gridPanel = new JPanel(new GridLayout(9, 9, 2, 2));
-        Font font = new Font("Segoe UI", Font.BOLD, 26);
+        JPanel gridPanel = new JPanel(new GridLayout(size, size, 2, 2));
+        Font font = new Font("Segoe UI", Font.BOLD, Math.max(12, Math.min(36, 234 / size)));
 
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 JTextField cell = new JTextField();
                 cell.setHorizontalAlignment(JTextField.CENTER);
                 cell.setFont(font);
                 cell.setBorder(BorderFactory.createLineBorder(new Color(180, 180, 180)));
 
-                int blockRow = i / 3;
-                int blockCol = j / 3;
-                Color light = new Color(250, 250, 250);
-                Color dark = new Color(235, 239, 245);
-                cell.setBackground((blockRow + blockCol) % 2 == 0 ? light : dark);
-
+                int index = i * size + j;
                 if (puzzle[i][j] != 0) {
-                    cell.setText(String.valueOf(puzzle[i][j]));
+                    cell.setText(String.valueOf(SudokuGeometry.symbol(puzzle[i][j])));
                     cell.setEditable(false);
-                    cell.setBackground(new Color(220, 225, 230));
                     cell.setForeground(new Color(60, 60, 60));
                 } else {
                     cell.setForeground(new Color(30, 50, 120));
                     // Effet focus visuel doux
                     cell.addFocusListener(new FocusAdapter() {
                         public void focusGained(FocusEvent e) {
-                            cell.setBackground(new Color(200, 220, 255));
+                            focusedCell = index;
+                            paintCell(index);
                         }
 
                         public void focusLost(FocusEvent e) {
-                            cell.setBackground(new Color(245, 247, 250));
+                            focusedCell = -1;
+                            paintCell(index);
+                        }
+                    });
+                    // Chaque saisie met le modèle à jour et recolore la case et ses voisines
+                    cell.getDocument().addDocumentListener(new DocumentListener() {
+                        public void insertUpdate(DocumentEvent e) {
+                            onEdit(index);
+                        }
+
+                        public void removeUpdate(DocumentEvent e) {
+                            onEdit(index);
+                        }
+
+                        public void changedUpdate(DocumentEvent e) {
                         }
                     });
                 }
 
                 cells[i][j] = cell;
                 gridPanel.add(cell);
+                paintCell(index);
             }
         }
 
@@ -180,11 +315,33 @@ public class SudokuGui extends JFrame {
         JButton resetButton = createButton("↺ Recommencer", new Color(65, 105, 225));
         JButton newGameButton = createButton("🎲 Nouveau", new Color(152, 109, 247));
         JButton aiHelpButton = createButton("💡 Aide IA", new Color(255, 170, 70));
+        JButton undoButton = createButton("↶ Annuler", new Color(120, 130, 150));
+        JButton redoButton = createButton("↷ Rétablir", new Color(120, 130, 150));
 
         checkButton.addActionListener(e -> checkSolution());
         resetButton.addActionListener(e -> resetGrid());
         newGameButton.addActionListener(e -> newGame());
         aiHelpButton.addActionListener(e -> aiAssistance());
+        undoButton.addActionListener(e -> undo());
+        redoButton.addActionListener(e -> redo());
+
+        JComboBox<Integer> sizeBox = new JComboBox<>(BOX_SIZES);
+        sizeBox.setSelectedItem(box);
+        sizeBox.setRenderer(new DefaultListCellRenderer() {
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                int b = (Integer) value;
+                return super.getListCellRendererComponent(list, b * b + "x" + b * b, index, isSelected, cellHasFocus);
+            }
+        });
+        sizeBox.addActionListener(e -> newGame((Integer) sizeBox.getSelectedItem(), difficulty));
+
+        JComboBox<Difficulty> levelBox = new JComboBox<>(Difficulty.values());
+        levelBox.setSelectedItem(difficulty);
+        levelBox.addActionListener(e -> {
+            difficulty = (Difficulty) levelBox.getSelectedItem();
+            newGame();
+        });
 
         timerLabel = new JLabel("⏳ 0 s");
         timerLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
@@ -194,6 +351,10 @@ public class SudokuGui extends JFrame {
         controlPanel.add(resetButton);
         controlPanel.add(newGameButton);
         controlPanel.add(aiHelpButton);
+        controlPanel.add(undoButton);
+        controlPanel.add(redoButton);
+        controlPanel.add(sizeBox);
+        controlPanel.add(levelBox);
         controlPanel.add(timerLabel);
 
         return controlPanel;
@@ -223,35 +384,69 @@ public class SudokuGui extends JFrame {
         return btn;
     }
 
-    // --- Vérification ---
-    private void checkSolution() {
-        boolean correct = true;
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                String text = cells[i][j].getText().trim();
-                if (text.isEmpty() || !text.matches("[1-9]")) {
-                    cells[i][j].setBackground(new Color(255, 190, 190));
-                    correct = false;
-                } else {
-                    int val = Integer.parseInt(text);
-                    if (!estValidePourGrille(i, j, val)) {
-                        cells[i][j].setBackground(new Color(255, 190, 190));
-                        correct = false;
-                    } else {
-                        cells[i][j].setBackground(new Color(230, 255, 230));
-                    }
-                }
+    // --- Saisie et couleurs ---
+    private void onEdit(int index) {
+        int val = valueAt(index / size, index % size);
+        int before = model.get(index);
+        invalid[index] = val < 0;
+        model.set(index, Math.max(val, 0));
+        if (!replaying && journal != null && before != model.get(index)) {
+            try {
+                journal.record(index, before, model.get(index), elapsedSeconds);
+            } catch (IOException e) {
+                journalFailed(e);
             }
         }
+        hints.set(index, Math.max(val, 0));
+        clearHintMarks();
+        paintCell(index);
+        for (int peer : model.getGeometry().peers[index]) {
+            paintCell(peer);
+        }
+    }
+
+    /** Couleur de fond d'une case d'après le modèle : erreur, focus, indice ou couleur du bloc. */
+    private void paintCell(int index) {
+        int i = index / size, j = index % size;
+        Color bg;
+        if (invalid[index] || model.isConflict(index)) {
+            bg = new Color(255, 190, 190);
+        } else if (index == focusedCell) {
+            bg = new Color(200, 220, 255);
+        } else if (hintMarks[index] == HINT_PLACED) {
+            bg = new Color(144, 238, 144);
+        } else if (hintMarks[index] == HINT_ELIMINATION) {
+            bg = new Color(255, 215, 170);
+        } else if (hintMarks[index] == HINT_PATTERN) {
+            bg = new Color(255, 240, 180);
+        } else if (model.isGiven(index)) {
+            bg = new Color(220, 225, 230);
+        } else {
+            bg = (i / box + j / box) % 2 == 0 ? new Color(250, 250, 250) : new Color(235, 239, 245);
+        }
+        cells[i][j].setBackground(bg);
+    }
 
-        if (!correct) {
+    // --- Vérification ---
+    private void checkSolution() {
+        if (cells == null) {
+            return;
+        }
+        if (!model.isSolved()) {
+            int empty = size * size - model.getFilledCount();
             JOptionPane.showMessageDialog(this,
-                    "⚠️ Certaines cases sont incorrectes ou vides.",
+                    "⚠️ Certaines cases sont incorrectes ou vides (" + empty + " vide(s), "
+                            + model.getConflictCount() + " conflit(s)).",
                     "Erreur",
                     JOptionPane.WARNING_MESSAGE);
         } else {
             timer.stop();
+            closeJournal();
+            try {
+                Files.deleteIfExists(JOURNAL);
+            } catch (IOException e) {
+                System.err.println("Suppression du journal : " + e.getMessage());
+            }
             JOptionPane.showMessageDialog(this,
                     "🎉 Bravo ! Vous avez complété le Sudoku en " + elapsedSeconds + " secondes.",
                     "Succès",
@@ -259,100 +454,157 @@ public class SudokuGui extends JFrame {
         }
     }
 
-    private boolean estValidePourGrille(int l, int c, int val) {
-        for (int i = 0; i < 9; i++) {
-            if (i != c && cells[l][i].getText().equals(String.valueOf(val))) return false;
-            if (i != l && cells[i][c].getText().equals(String.valueOf(val))) return false;
+    /** Valeur saisie dans la case (1 à size, '1'-'9' puis 'A'...), 0 si vide, -1 si invalide. */
+    private int valueAt(int l, int c) {
+        String text = cells[l][c].getText().trim();
+        if (text.isEmpty()) {
+            return 0;
         }
-
-        int startRow = l - l % 3, startCol = c - c % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                int r = startRow + i, col = startCol + j;
-                if ((r != l || col != c) && cells[r][col].getText().equals(String.valueOf(val))) return false;
-            }
-        }
-        return true;
+        int val = text.length() == 1 ? SudokuGeometry.valueOf(text.charAt(0)) : -1;
+        return val >= 1 && val <= size ? val : -1;
     }
 
     // --- IA d'aide ---
+
+    /**
+     * Donne la déduction la plus simple applicable ({@link HintEngine}) : la valeur est posée
+     * pour un singleton, sinon les cases du motif et celles dont on retire des candidats sont
+     * mises en couleur. Une case fausse ou un conflit est signalé avant toute déduction.
+     */
     private void aiAssistance() {
-        boolean progress = false;
-
-        for (int i = 0; i < 9 && !progress; i++) {
-            for (int j = 0; j < 9 && !progress; j++) {
-                if (cells[i][j].getText().isEmpty()) {
-                    List<Integer> possibles = getPossibles(i, j);
-                    if (possibles.size() == 1) {
-                        int val = possibles.get(0);
-                        cells[i][j].setText(String.valueOf(val));
-                        cells[i][j].setBackground(new Color(144, 238, 144));
-                        progress = true;
-                        JOptionPane.showMessageDialog(this,
-                                "💡 Déduction IA : (" + (i + 1) + "," + (j + 1) + ") = " + val,
-                                "Aide IA",
-                                JOptionPane.INFORMATION_MESSAGE);
-                    }
-                }
-            }
+        if (cells == null) {
+            return;
+        }
+        int mistake = hints.firstMistake();
+        if (mistake >= 0) {
+            JOptionPane.showMessageDialog(this,
+                    "❌ La case (" + (mistake / size + 1) + "," + (mistake % size + 1) + ") est fausse.",
+                    "Aide IA",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (model.getConflictCount() > 0) {
+            JOptionPane.showMessageDialog(this,
+                    "⚠️ Corrigez d'abord les cases en rouge.",
+                    "Aide IA",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
         }
 
-        if (!progress) {
+        Deduction d = hints.next();
+        if (d == null) {
             JOptionPane.showMessageDialog(this,
-                    "🤔 Aucune déduction simple possible pour le moment.",
+                    "🤔 Aucune technique connue ne s'applique pour le moment.",
                     "Aide IA",
                     JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        String message = "💡 " + hints.describe(d);
+        if (d.isPlacement()) {
+            int cell = d.getCell();
+            cells[cell / size][cell % size].setText(String.valueOf(SudokuGeometry.symbol(d.getValue())));
+            markHint(cell, HINT_PLACED);
+        } else {
+            hints.accept(d);
+            for (int i = 0; i < d.getPatternCount(); i++) {
+                markHint(d.getPatternCell(i), HINT_PATTERN);
+            }
+            for (int i = 0; i < d.getEliminationCount(); i++) {
+                markHint(d.getEliminationCell(i), HINT_ELIMINATION);
+            }
+        }
+        JOptionPane.showMessageDialog(this, message, "Aide IA", JOptionPane.INFORMATION_MESSAGE);
     }
 
-    private List<Integer> getPossibles(int row, int col) {
-        List<Integer> possibles = new ArrayList<>();
-        for (int val = 1; val <= 9; val++) {
-            if (estValidePourGrilleTemp(row, col, val)) possibles.add(val);
+    private void markHint(int index, int mark) {
+        hintMarks[index] = mark;
+        paintCell(index);
+    }
+
+    private void clearHintMarks() {
+        for (int index = 0; index < hintMarks.length; index++) {
+            if (hintMarks[index] != 0) {
+                hintMarks[index] = 0;
+                paintCell(index);
+            }
         }
-        return possibles;
     }
 
-    private boolean estValidePourGrilleTemp(int l, int c, int val) {
-        for (int i = 0; i < 9; i++) {
-            if (cells[l][i].getText().equals(String.valueOf(val))) return false;
-            if (cells[i][c].getText().equals(String.valueOf(val))) return false;
+    // --- Annuler / rétablir ---
+    private void undo() {
+        if (journal == null || cells == null) {
+            return;
         }
+        try {
+            int move = journal.undo(elapsedSeconds);
+            if (move >= 0) {
+                showMove(MoveJournal.cellOf(move), MoveJournal.oldValue(move));
+            }
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
 
-        int startRow = l - l % 3, startCol = c - c % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (cells[startRow + i][startCol + j].getText().equals(String.valueOf(val))) return false;
+    private void redo() {
+        if (journal == null || cells == null) {
+            return;
+        }
+        try {
+            int move = journal.redo(elapsedSeconds);
+            if (move >= 0) {
+                showMove(MoveJournal.cellOf(move), MoveJournal.newValue(move));
             }
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+    }
+
+    /** Affiche {@code value} dans la case sans l'enregistrer comme un nouveau coup. */
+    private void showMove(int cell, int value) {
+        replaying = true;
+        try {
+            cells[cell / size][cell % size].setText(value == 0 ? "" : String.valueOf(SudokuGeometry.symbol(value)));
+        } finally {
+            replaying = false;
         }
-        return true;
     }
 
     // --- Timer / reset ---
     private void resetGrid() {
+        if (cells == null) {
+            return;
+        }
         elapsedSeconds = 0;
         timerLabel.setText("⏳ 0 s");
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (puzzle[i][j] == 0) {
-                    cells[i][j].setText("");
-                    cells[i][j].setBackground(Color.WHITE);
+        replaying = true;
+        try {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (puzzle[i][j] == 0) {
+                        cells[i][j].setText("");
+                    }
                 }
             }
+        } finally {
+            replaying = false;
+        }
+        // La partie repart de zéro, temps compris : nouveau journal pour la même grille
+        if (journal != null) {
+            Puzzle p = journal.getPuzzle();
+            closeJournal();
+            journal = openJournal(p);
         }
     }
 
     private void newGame() {
-        dispose();
-        new SudokuGui();
+        newGame(box, difficulty);
     }
 
-    private void startTimer() {
+    private void createTimer() {
         timer = new Timer(1000, e -> {
             elapsedSeconds++;
             timerLabel.setText("⏳ " + elapsedSeconds + " s");
         });
-        timer.start();
     }
 
     public static void main(String[] args) {
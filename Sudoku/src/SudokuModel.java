@@ -0,0 +1,163 @@
+import java.util.Arrays;
+
+/**
+ * État d'une partie en cours, indépendant de l'affichage : valeur de chaque case, indices fixes
+ * et, pour chaque unité, le nombre d'occurrences de chaque valeur.
+ * <p>
+ * Les compteurs sont mis à jour à chaque {@link #set}, si bien qu'un conflit (valeur présente
+ * deux fois dans une unité) se lit en O(1) pour une case comme pour la grille entière, et que
+ * « grille résolue » revient à comparer deux compteurs.
+ */
+public final class SudokuModel {
+    private final SudokuGeometry geo;
+    private final int size;
+    private final int[] values;
+    private final boolean[] given;
+    /** Occurrences de la valeur {@code v} dans l'unité {@code u} : {@code counts[u * size + v - 1]}. */
+    private final int[] counts;
+    /** Valeurs présentes au moins une fois dans chaque unité (bit {@code v - 1}). */
+    private final int[] present;
+    /** Nombre de couples (unité, valeur) où la valeur apparaît plus d'une fois. */
+    private int duplicates;
+    private int filled;
+
+    public SudokuModel(int box) {
+        geo = SudokuGeometry.of(box);
+        size = geo.size;
+        values = new int[geo.cells];
+        given = new boolean[geo.cells];
+        counts = new int[geo.unitCount() * size];
+        present = new int[geo.unitCount()];
+    }
+
+    public SudokuGeometry getGeometry() {
+        return geo;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Repart de la grille {@code givens} (à plat, 0 = vide) ; ses valeurs deviennent des indices fixes. */
+    public void load(int[] givens) {
+        Arrays.fill(values, 0);
+        Arrays.fill(counts, 0);
+        Arrays.fill(present, 0);
+        duplicates = 0;
+        filled = 0;
+        for (int cell = 0; cell < geo.cells; cell++) {
+            given[cell] = givens[cell] != 0;
+            if (givens[cell] != 0) {
+                add(cell, givens[cell]);
+            }
+        }
+    }
+
+    /** Efface toutes les valeurs saisies, les indices restent. */
+    public void reset() {
+        for (int cell = 0; cell < geo.cells; cell++) {
+            if (!given[cell]) {
+                set(cell, 0);
+            }
+        }
+    }
+
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    public boolean isGiven(int cell) {
+        return given[cell];
+    }
+
+    /**
+     * Met {@code val} dans la case (0 pour la vider).
+     *
+     * @return vrai si la valeur a changé
+     */
+    public boolean set(int cell, int val) {
+        if (val < 0 || val > size) {
+            throw new IllegalArgumentException("Valeur hors limites : " + val);
+        }
+        if (given[cell]) {
+            throw new IllegalStateException("La case " + cell + " est un indice");
+        }
+        int old = values[cell];
+        if (old == val) {
+            return false;
+        }
+        if (old != 0) {
+            removeValue(cell, old);
+        }
+        if (val != 0) {
+            add(cell, val);
+        }
+        return true;
+    }
+
+    private void add(int cell, int val) {
+        values[cell] = val;
+        filled++;
+        for (int u : geo.cellUnits[cell]) {
+            int n = ++counts[u * size + val - 1];
+            if (n == 1) {
+                present[u] |= 1 << (val - 1);
+            } else if (n == 2) {
+                duplicates++;
+            }
+        }
+    }
+
+    private void removeValue(int cell, int val) {
+        values[cell] = 0;
+        filled--;
+        for (int u : geo.cellUnits[cell]) {
+            int n = --counts[u * size + val - 1];
+            if (n == 0) {
+                present[u] &= ~(1 << (val - 1));
+            } else if (n == 1) {
+                duplicates--;
+            }
+        }
+    }
+
+    /** Vrai si la valeur de la case apparaît aussi ailleurs dans sa ligne, sa colonne ou son bloc. */
+    public boolean isConflict(int cell) {
+        int val = values[cell];
+        if (val == 0) {
+            return false;
+        }
+        int[] units = geo.cellUnits[cell];
+        return counts[units[0] * size + val - 1] > 1
+                || counts[units[1] * size + val - 1] > 1
+                || counts[units[2] * size + val - 1] > 1;
+    }
+
+    /** Nombre de couples (unité, valeur) en double dans la grille. */
+    public int getConflictCount() {
+        return duplicates;
+    }
+
+    /** Valeurs encore absentes de la ligne, de la colonne et du bloc de la case (bit {@code v - 1}). */
+    public int candidates(int cell) {
+        int[] units = geo.cellUnits[cell];
+        return ~(present[units[0]] | present[units[1]] | present[units[2]]) & geo.all;
+    }
+
+    public int getFilledCount() {
+        return filled;
+    }
+
+    public boolean isFull() {
+        return filled == geo.cells;
+    }
+
+    /** Grille complète et sans conflit, donc résolue. */
+    public boolean isSolved() {
+        return filled == geo.cells && duplicates == 0;
+    }
+
+    public int[] toArray() {
+        return values.clone();
+    }
+}
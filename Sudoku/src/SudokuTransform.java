@@ -0,0 +1,174 @@
+/**
+ * Transformation qui conserve la validité et la difficulté d'une grille : renumérotation des
+ * chiffres, permutation des lignes dans chaque bande et des bandes entre elles, idem pour les
+ * colonnes et les piles, puis transposition éventuelle.
+ * <p>
+ * Chaque transformation a un numéro dans {@code [0, count)} : {@link #setIndex} le décode en
+ * base mixte (transposition, ordre des bandes, lignes de chaque bande, piles, colonnes, puis
+ * chiffres) sans rien allouer, et {@link #apply} recopie la grille en une passe. En 9x9 il y a
+ * 2 x (3!)^8 x 9! ≈ 1,2·10^12 transformations ; dès 16x16 (2 x (4!)^10 x 16! ≈ 2,6·10^27)
+ * leur nombre dépasse un {@code long} et seuls les {@link Long#MAX_VALUE} premiers numéros
+ * sont atteignables.
+ * Une instance n'est pas thread-safe.
+ */
+public final class SudokuTransform {
+    private final SudokuGeometry geo;
+    private final int box;
+    private final int size;
+    /** Ligne (resp. colonne) source de chaque ligne (resp. colonne) du résultat. */
+    private final int[] rowMap;
+    private final int[] colMap;
+    /** Décalage dans la grille source de chaque ligne et colonne du résultat, transposition comprise. */
+    private final int[] rowOffset;
+    private final int[] colOffset;
+    /** Nouveau chiffre de chaque chiffre source ; {@code digitMap[0] = 0} garde les cases vides. */
+    private final int[] digitMap;
+    /** Les {@code box!} permutations de {@code 0 .. box - 1}, rangées par numéro. */
+    private final int[][] boxPerms;
+    /** Éléments pas encore placés pendant le décodage des chiffres. */
+    private final int[] free;
+    private boolean transpose;
+    private long index;
+
+    public SudokuTransform(int box) {
+        this.geo = SudokuGeometry.of(box);
+        this.box = box;
+        this.size = geo.size;
+        rowMap = new int[size];
+        colMap = new int[size];
+        rowOffset = new int[size];
+        colOffset = new int[size];
+        digitMap = new int[size + 1];
+        free = new int[size];
+        boxPerms = new int[(int) factorial(box)][box];
+        for (int code = 0; code < boxPerms.length; code++) {
+            decodePermutation(code, boxPerms[code], 0, box);
+        }
+        setIndex(0);
+    }
+
+    /** Nombre de transformations distinctes, plafonné à {@link Long#MAX_VALUE}. */
+    public static long count(int box) {
+        int size = box * box;
+        long boxPerms = factorial(box);
+        long total = 2;
+        for (int i = 0; i < 2 * (box + 1); i++) {
+            total = saturatedMultiply(total, boxPerms);
+        }
+        return saturatedMultiply(total, factorial(size));
+    }
+
+    private static long factorial(int n) {
+        long f = 1;
+        for (int i = 2; i <= n; i++) {
+            f = saturatedMultiply(f, i);
+        }
+        return f;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        return hi != 0 || lo < 0 ? Long.MAX_VALUE : lo;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    /** Sélectionne la transformation n° {@code k} (0 est l'identité, les numéros sont pris modulo {@link #count}). */
+    public void setIndex(long k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Numéro de transformation négatif : " + k);
+        }
+        index = k;
+        transpose = (k & 1) != 0;
+        k >>>= 1;
+        k = decodeLines(k, rowMap);
+        k = decodeLines(k, colMap);
+        k = decodePermutation(k, digitMap, 1, size);
+        digitMap[0] = 0;
+        int rowStride = transpose ? 1 : size, colStride = transpose ? size : 1;
+        for (int i = 0; i < size; i++) {
+            rowOffset[i] = rowMap[i] * rowStride;
+            colOffset[i] = colMap[i] * colStride;
+        }
+    }
+
+    /** Ordre des bandes, puis ordre des lignes dans chacune (une division par permutation). */
+    private long decodeLines(long k, int[] map) {
+        int perms = boxPerms.length;
+        int[] bands = boxPerms[(int) (k % perms)];
+        k /= perms;
+        for (int b = 0; b < box; b++) {
+            int[] lines = boxPerms[(int) (k % perms)];
+            k /= perms;
+            for (int i = 0; i < box; i++) {
+                map[b * box + i] = bands[b] * box + lines[i];
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Décode dans {@code out[from .. from + n)} une permutation de {@code from .. from + n - 1}
+     * à partir des chiffres de poids faible de {@code k} en base factorielle (Fisher–Yates
+     * déterministe, 0 donne l'identité) ; renvoie le reste de {@code k}.
+     */
+    private long decodePermutation(long k, int[] out, int from, int n) {
+        for (int i = 0; i < n; i++) {
+            free[i] = from + i;
+        }
+        for (int i = 0; i < n; i++) {
+            int remaining = n - i;
+            int pick;
+            if (k <= Integer.MAX_VALUE) {
+                // division entière 32 bits, nettement moins chère que sur un long
+                pick = i + (int) k % remaining;
+                k = (int) k / remaining;
+            } else {
+                pick = i + (int) (k % remaining);
+                k /= remaining;
+            }
+            int v = free[pick];
+            free[pick] = free[i];
+            free[i] = v;
+            out[from + i] = v;
+        }
+        return k;
+    }
+
+    /** Écrit dans {@code dst} (à plat) l'image de {@code src} par la transformation courante. */
+    public void apply(int[] src, int[] dst) {
+        int out = 0;
+        for (int r = 0; r < size; r++) {
+            int base = rowOffset[r];
+            for (int c = 0; c < size; c++) {
+                dst[out++] = digitMap[src[base + colOffset[c]]];
+            }
+        }
+    }
+
+    /** Variante pour les grilles {@code int[size][size]} de {@link Sudoku}. */
+    public void apply(int[][] src, int[][] dst) {
+        for (int r = 0; r < size; r++) {
+            int sr = rowMap[r];
+            for (int c = 0; c < size; c++) {
+                int sc = colMap[c];
+                dst[r][c] = digitMap[transpose ? src[sc][sr] : src[sr][sc]];
+            }
+        }
+    }
+
+    /** Image d'une grille complète avec sa solution, même difficulté. */
+    public Puzzle apply(Puzzle puzzle) {
+        if (puzzle.getBoxSize() != box) {
+            throw new IllegalArgumentException("Taille de bloc " + puzzle.getBoxSize() + " au lieu de " + box);
+        }
+        int[] givens = new int[geo.cells];
+        int[] solution = new int[geo.cells];
+        apply(puzzle.getGivens(), givens);
+        apply(puzzle.getSolution(), solution);
+        return new Puzzle(box, givens, solution, puzzle.getDifficulty());
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Techniques de résolution humaine, de la plus simple à la plus difficile.
+ * Le poids est ajouté au score de la grille à chaque utilisation.
+ */
+public enum Technique {
+    HIDDEN_SINGLE("Singleton caché", 1),
+    NAKED_SINGLE("Singleton nu", 2),
+    POINTING("Paire/triplet pointant", 5),
+    BOX_LINE("Réduction bloc/ligne", 6),
+    NAKED_PAIR("Paire nue", 8),
+    HIDDEN_PAIR("Paire cachée", 10),
+    NAKED_TRIPLE("Triplet nu", 12),
+    HIDDEN_TRIPLE("Triplet caché", 14),
+    X_WING("X-Wing", 20),
+    SWORDFISH("Swordfish", 30);
+
+    private final String label;
+    private final int weight;
+
+    Technique(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /** Niveau de difficulté d'une grille dont c'est la technique la plus dure nécessaire. */
+    public Difficulty toDifficulty() {
+        if (this.compareTo(NAKED_SINGLE) <= 0) {
+            return Difficulty.EASY;
+        }
+        if (this.compareTo(HIDDEN_TRIPLE) <= 0) {
+            return Difficulty.MEDIUM;
+        }
+        return Difficulty.HARD;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,362 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Dictionnaire de mots croisés indexé par motif : {@code ?A??E} donne les mots de cinq lettres
+ * qui ont un A en deuxième position et un E en dernière.
+ * <p>
+ * Les mots sont rangés par longueur, chacun codé sur un octet par lettre (rang de la lettre
+ * dans l'alphabet du dictionnaire). Pour chaque longueur, chaque position et chaque lettre,
+ * un ensemble de bits indique les mots qui ont cette lettre à cette position : une requête
+ * est le ET des ensembles des lettres imposées, quelques centaines de {@code long} pour une
+ * longueur de 10 000 mots, soit quelques microsecondes.
+ * <p>
+ * L'index tient dans un seul tampon, au même format en mémoire et sur disque :
+ * {@link #write} l'enregistre et {@link #open} le projette en mémoire
+ * ({@link FileChannel#map}), sans rien décoder au chargement. Le fichier commence par un
+ * en-tête de {@link #HEADER_SIZE} octets (signature, version, taille de l'alphabet, longueur
+ * maximale, nombre de mots), suivi de l'alphabet, d'une table (nombre de mots, position des
+ * mots, position des ensembles de bits) par longueur, puis des données. Les lectures sont
+ * absolues : une instance peut servir à plusieurs threads.
+ *
+ * <pre>
+ * java WordIndex mots.txt mots.idx
+ * </pre>
+ */
+public final class WordIndex {
+    public static final int HEADER_SIZE = 20;
+    /** Lettre quelconque dans un motif. */
+    public static final char WILDCARD = '?';
+    public static final int MIN_LENGTH = 2;
+    public static final int MAX_LENGTH = 32;
+    /** "CWIX" */
+    private static final int MAGIC = 0x43574958;
+    private static final int VERSION = 1;
+    private static final int TABLE_ENTRY = 12;
+
+    private final ByteBuffer data;
+    /** Lettres de l'alphabet, triées : le code d'une lettre est son rang. */
+    private final char[] alphabet;
+    private final int maxLength;
+    private final int total;
+    private final int[] counts;
+    private final int[] wordsAt;
+    private final int[] bitsAt;
+
+    private WordIndex(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Pas un index de mots");
+        }
+        int version = data.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Version d'index non gérée : " + version);
+        }
+        int letters = data.getInt(8);
+        maxLength = data.getInt(12);
+        total = data.getInt(16);
+        if (letters < 0 || letters > 256 || maxLength < 0 || maxLength > MAX_LENGTH
+                || data.capacity() < tableAt(letters) + maxLength * TABLE_ENTRY) {
+            throw new IOException("En-tête d'index invalide");
+        }
+        alphabet = new char[letters];
+        for (int a = 0; a < letters; a++) {
+            alphabet[a] = data.getChar(HEADER_SIZE + a * 2);
+        }
+        counts = new int[maxLength + 1];
+        wordsAt = new int[maxLength + 1];
+        bitsAt = new int[maxLength + 1];
+        for (int len = 1; len <= maxLength; len++) {
+            int entry = tableAt(letters) + (len - 1) * TABLE_ENTRY;
+            counts[len] = data.getInt(entry);
+            wordsAt[len] = data.getInt(entry + 4);
+            bitsAt[len] = data.getInt(entry + 8);
+            long end = (long) bitsAt[len] + (long) len * letters * words64(counts[len]) * 8;
+            if (counts[len] < 0 || wordsAt[len] < 0 || bitsAt[len] < 0 || end > data.capacity()) {
+                throw new IOException("Index tronqué");
+            }
+        }
+    }
+
+    /**
+     * Index en mémoire des mots de {@code words}, mis en majuscules ; les doublons, les mots
+     * qui contiennent autre chose que des lettres et ceux hors de [{@link #MIN_LENGTH},
+     * {@link #MAX_LENGTH}] sont écartés.
+     */
+    public static WordIndex build(Collection<String> words) {
+        List<TreeSet<String>> byLength = new ArrayList<>();
+        TreeSet<Character> letters = new TreeSet<>();
+        for (String raw : words) {
+            String w = normalize(raw);
+            if (w == null) {
+                continue;
+            }
+            while (byLength.size() <= w.length()) {
+                byLength.add(new TreeSet<>());
+            }
+            if (byLength.get(w.length()).add(w)) {
+                for (int i = 0; i < w.length(); i++) {
+                    letters.add(w.charAt(i));
+                }
+            }
+        }
+        if (letters.size() > 256) {
+            throw new IllegalArgumentException("Trop de lettres différentes : " + letters.size());
+        }
+        char[] alphabet = new char[letters.size()];
+        int a = 0;
+        for (char ch : letters) {
+            alphabet[a++] = ch;
+        }
+
+        int maxLength = Math.max(byLength.size() - 1, 0);
+        int[] wordsAt = new int[maxLength + 1];
+        int[] bitsAt = new int[maxLength + 1];
+        long pos = align(tableAt(alphabet.length) + (long) maxLength * TABLE_ENTRY);
+        int total = 0;
+        for (int len = MIN_LENGTH; len <= maxLength; len++) {
+            int n = byLength.get(len).size();
+            total += n;
+            wordsAt[len] = (int) pos;
+            pos = align(pos + (long) n * len);
+            bitsAt[len] = (int) pos;
+            pos += (long) len * alphabet.length * words64(n) * 8;
+            if (pos > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Dictionnaire trop grand pour un index");
+            }
+        }
+
+        ByteBuffer data = ByteBuffer.allocate((int) pos).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, alphabet.length)
+                .putInt(12, maxLength).putInt(16, total);
+        for (int i = 0; i < alphabet.length; i++) {
+            data.putChar(HEADER_SIZE + i * 2, alphabet[i]);
+        }
+        for (int len = 1; len <= maxLength; len++) {
+            int entry = tableAt(alphabet.length) + (len - 1) * TABLE_ENTRY;
+            int n = len < MIN_LENGTH ? 0 : byLength.get(len).size();
+            data.putInt(entry, n).putInt(entry + 4, wordsAt[len]).putInt(entry + 8, bitsAt[len]);
+            if (n == 0) {
+                continue;
+            }
+            int w64 = words64(n);
+            int k = 0;
+            for (String w : byLength.get(len)) {
+                for (int i = 0; i < len; i++) {
+                    int code = Arrays.binarySearch(alphabet, w.charAt(i));
+                    data.put(wordsAt[len] + k * len + i, (byte) code);
+                    int at = bitsAt[len] + ((i * alphabet.length + code) * w64 + (k >>> 6)) * 8;
+                    data.putLong(at, data.getLong(at) | 1L << k);
+                }
+                k++;
+            }
+        }
+        try {
+            return new WordIndex(data);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Projette en mémoire un index écrit par {@link #write}. La projection reste valide après
+     * la fermeture du canal ; seules les pages lues sont amenées en mémoire par le système.
+     */
+    public static WordIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index trop grand : " + path);
+            }
+            try {
+                return new WordIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (IOException e) {
+                throw new IOException(e.getMessage() + " : " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Index écrit par {@link #write}, projeté en mémoire, ou liste de mots à indexer : un mot
+     * par ligne, seul le premier champ d'une ligne {@code mot TAB ...} est lu.
+     */
+    public static WordIndex load(Path path) throws IOException {
+        byte[] head = new byte[4];
+        int n;
+        try (InputStream in = Files.newInputStream(path)) {
+            n = in.readNBytes(head, 0, 4);
+        }
+        if (n == 4 && ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC) {
+            return open(path);
+        }
+        return build(readWords(path));
+    }
+
+    private static List<String> readWords(Path path) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                int tab = line.indexOf('\t');
+                words.add(tab < 0 ? line : line.substring(0, tab));
+            }
+        }
+        return words;
+    }
+
+    public void write(Path path) throws IOException {
+        ByteBuffer out = data.duplicate().clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /** Nombre total de mots. */
+    public int size() {
+        return total;
+    }
+
+    /** Nombre de mots de {@code length} lettres. */
+    public int size(int length) {
+        return length > 0 && length <= maxLength ? counts[length] : 0;
+    }
+
+    /** Ensemble de bits vide, à la taille des réponses de {@link #match} pour {@code length} lettres. */
+    public long[] newBitset(int length) {
+        return new long[words64(size(length))];
+    }
+
+    /**
+     * Mots qui correspondent à {@code pattern} ({@link #WILDCARD} pour une lettre quelconque),
+     * mis à 1 dans {@code bits} ({@link #newBitset}) par leur rang ({@link #word}) ; renvoie
+     * leur nombre. Aucune allocation.
+     */
+    public int match(CharSequence pattern, long[] bits) {
+        int len = pattern.length();
+        int n = size(len);
+        int w64 = words64(n);
+        if (n == 0) {
+            return 0;
+        }
+        Arrays.fill(bits, 0, w64, -1L);
+        if ((n & 63) != 0) {
+            bits[w64 - 1] = -1L >>> (64 - (n & 63));
+        }
+        for (int i = 0; i < len; i++) {
+            char ch = pattern.charAt(i);
+            if (ch == WILDCARD) {
+                continue;
+            }
+            int code = Arrays.binarySearch(alphabet, ch);
+            if (code < 0) {
+                Arrays.fill(bits, 0, w64, 0L);
+                return 0;
+            }
+            int at = bitsAt[len] + (i * alphabet.length + code) * w64 * 8;
+            for (int k = 0; k < w64; k++, at += 8) {
+                bits[k] &= data.getLong(at);
+            }
+        }
+        int count = 0;
+        for (int k = 0; k < w64; k++) {
+            count += Long.bitCount(bits[k]);
+        }
+        return count;
+    }
+
+    /** Tous les mots qui correspondent à {@code pattern}, dans l'ordre alphabétique. */
+    public List<String> match(CharSequence pattern) {
+        int len = pattern.length();
+        long[] bits = newBitset(len);
+        List<String> words = new ArrayList<>(match(pattern, bits));
+        for (int k = 0; k < bits.length; k++) {
+            for (long b = bits[k]; b != 0; b &= b - 1) {
+                words.add(word(len, k << 6 | Long.numberOfTrailingZeros(b)));
+            }
+        }
+        return words;
+    }
+
+    /** Mot de rang {@code i} parmi ceux de {@code length} lettres (ordre alphabétique). */
+    public String word(int length, int i) {
+        if (i < 0 || i >= size(length)) {
+            throw new IndexOutOfBoundsException("Mot " + i + " hors des " + size(length) + " mots de " + length + " lettres");
+        }
+        char[] w = new char[length];
+        int at = wordsAt[length] + i * length;
+        for (int k = 0; k < length; k++) {
+            w[k] = alphabet[data.get(at + k) & 0xFF];
+        }
+        return new String(w);
+    }
+
+    /** Rang du {@code k}-ième bit à 1 de {@code bits} (à partir de 0), -1 s'il y en a moins. */
+    public static int select(long[] bits, int k) {
+        for (int i = 0; i < bits.length; i++) {
+            int c = Long.bitCount(bits[i]);
+            if (k < c) {
+                long b = bits[i];
+                for (; k > 0; k--) {
+                    b &= b - 1;
+                }
+                return i << 6 | Long.numberOfTrailingZeros(b);
+            }
+            k -= c;
+        }
+        return -1;
+    }
+
+    /** Mot en majuscules, null s'il n'a pas sa place dans l'index. */
+    private static String normalize(String raw) {
+        String w = raw.trim().toUpperCase(Locale.ROOT);
+        if (w.length() < MIN_LENGTH || w.length() > MAX_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < w.length(); i++) {
+            if (!Character.isLetter(w.charAt(i))) {
+                return null;
+            }
+        }
+        return w;
+    }
+
+    private static int tableAt(int letters) {
+        return HEADER_SIZE + letters * 2;
+    }
+
+    private static int words64(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    private static long align(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage : java WordIndex mots.txt mots.idx");
+            System.exit(2);
+        }
+        long t0 = System.nanoTime();
+        WordIndex index = build(readWords(Paths.get(args[0])));
+        index.write(Paths.get(args[1]));
+        System.out.printf("%d mots indexés, %d octets, en %d ms%n", index.size(), index.data.capacity(),
+                (System.nanoTime() - t0) / 1_000_000);
+    }
+}